@@ -0,0 +1,63 @@
+package com.example.grocery.config;
+
+import com.example.grocery.service.CatalogCategory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * The general-purpose executor Boot would otherwise auto-configure.
+     * Boot backs off as soon as any other Executor bean exists, so it is declared here with
+     * Boot's own builder (spring.task.execution.* still applies). Unqualified @Async and
+     * MVC async requests keep running on it instead of the two dedicated pools below.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Background pool for image variant generation.
+     * Small and bounded: resizing is CPU heavy and must not starve request threads.
+     * When the queue is full the uploading request resizes the image itself.
+     */
+    @Bean(name = "imageTaskExecutor")
+    public ThreadPoolTaskExecutor imageTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("image-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool for running the per-category catalog queries concurrently.
+     * Every thread holds a database connection while it runs, so the pool takes at most
+     * half of the connection pool and leaves the rest to request threads.
+     * One thread per category is enough; extra threads would never be used.
+     */
+    @Bean(name = "catalogQueryExecutor")
+    public ThreadPoolTaskExecutor catalogQueryExecutor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        int threads = Math.max(1, Math.min(CatalogCategory.values().length, connectionPoolSize / 2));
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("catalog-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.grocery.controller;
 
+import com.example.grocery.dto.CatalogRow;
 import com.example.grocery.model.Bakery;
 import com.example.grocery.model.User;
 import com.example.grocery.model.Employee;
 import com.example.grocery.repo.BakeryRepository;
 import com.example.grocery.repo.UserRepository;
 import com.example.grocery.repo.EmployeeRepository;
+import com.example.grocery.service.CatalogCategory;
+import com.example.grocery.service.CatalogService;
+import com.example.grocery.service.CatalogSnapshot;
+import com.example.grocery.service.ProductImageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,9 +26,17 @@ public class BakeryController {
     private UserRepository userRepo;
     @Autowired
     private EmployeeRepository employeeRepo;
+    @Autowired
+    private CatalogService catalogService;
+    @Autowired
+    private ProductImageService productImageService;
 
     @GetMapping
-    public List<Bakery> all(){ return repo.findByActiveTrue(); }
+    public ResponseEntity<List<CatalogRow>> all(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch){
+        CatalogSnapshot snapshot = catalogService.snapshot();
+        return CatalogETags.conditional(ifNoneMatch, CatalogETags.forCategory("list", snapshot, CatalogCategory.BAKERY),
+                () -> snapshot.getProducts(CatalogCategory.BAKERY));
+    }
 
     @PostMapping
     public Object createBakery(@RequestBody Bakery item, @RequestHeader("user-id") Long userId) {
@@ -34,7 +47,10 @@ public class BakeryController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can create bakery items");
             }
-            return repo.save(item);
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
+            Bakery saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.BAKERY);
+            return saved;
         }
         Optional<Employee> empOpt = employeeRepo.findById(userId);
         if (empOpt.isPresent()) {
@@ -43,7 +59,10 @@ public class BakeryController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can create bakery items");
             }
-            return repo.save(item);
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
+            Bakery saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.BAKERY);
+            return saved;
         }
         return Map.of("error", "User not found");
     }
@@ -60,8 +79,11 @@ public class BakeryController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can update bakery items");
             }
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
             item.setId(id);
-            return repo.save(item);
+            Bakery saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.BAKERY);
+            return saved;
         }
         Optional<Employee> empOpt = employeeRepo.findById(userId);
         if (empOpt.isPresent()) {
@@ -70,8 +92,11 @@ public class BakeryController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can update bakery items");
             }
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
             item.setId(id);
-            return repo.save(item);
+            Bakery saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.BAKERY);
+            return saved;
         }
         return Map.of("error", "User not found");
     }
@@ -94,6 +119,7 @@ public class BakeryController {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Bakery product not found with id: " + id));
                 }
                 repo.deleteById(id);
+                catalogService.refresh(CatalogCategory.BAKERY);
                 return ResponseEntity.ok(Map.of("status","deleted", "id", id));
             }
             Optional<Employee> empOpt = employeeRepo.findById(userId);
@@ -107,6 +133,7 @@ public class BakeryController {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Bakery product not found with id: " + id));
                 }
                 repo.deleteById(id);
+                catalogService.refresh(CatalogCategory.BAKERY);
                 return ResponseEntity.ok(Map.of("status","deleted", "id", id));
             }
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "User not found"));
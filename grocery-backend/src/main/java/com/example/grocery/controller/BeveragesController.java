@@ -1,12 +1,18 @@
 package com.example.grocery.controller;
 
+import com.example.grocery.dto.CatalogRow;
 import com.example.grocery.model.Beverages;
 import com.example.grocery.model.User;
 import com.example.grocery.model.Employee;
 import com.example.grocery.repo.BeveragesRepository;
 import com.example.grocery.repo.UserRepository;
 import com.example.grocery.repo.EmployeeRepository;
+import com.example.grocery.service.CatalogCategory;
+import com.example.grocery.service.CatalogService;
+import com.example.grocery.service.CatalogSnapshot;
+import com.example.grocery.service.ProductImageService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
 
@@ -19,9 +25,17 @@ public class BeveragesController {
     private UserRepository userRepo;
     @Autowired
     private EmployeeRepository employeeRepo;
+    @Autowired
+    private CatalogService catalogService;
+    @Autowired
+    private ProductImageService productImageService;
 
     @GetMapping
-    public List<Beverages> all(){ return repo.findByActiveTrue(); }
+    public ResponseEntity<List<CatalogRow>> all(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch){
+        CatalogSnapshot snapshot = catalogService.snapshot();
+        return CatalogETags.conditional(ifNoneMatch, CatalogETags.forCategory("list", snapshot, CatalogCategory.BEVERAGES),
+                () -> snapshot.getProducts(CatalogCategory.BEVERAGES));
+    }
 
     @PostMapping
     public Object createBeverages(@RequestBody Beverages item, @RequestHeader("user-id") Long userId) {
@@ -32,7 +46,10 @@ public class BeveragesController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can create beverages items");
             }
-            return repo.save(item);
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
+            Beverages saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.BEVERAGES);
+            return saved;
         }
         Optional<Employee> empOpt = employeeRepo.findById(userId);
         if (empOpt.isPresent()) {
@@ -41,7 +58,10 @@ public class BeveragesController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can create beverages items");
             }
-            return repo.save(item);
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
+            Beverages saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.BEVERAGES);
+            return saved;
         }
         return Map.of("error", "User not found");
     }
@@ -58,8 +78,11 @@ public class BeveragesController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can update beverages items");
             }
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
             item.setId(id);
-            return repo.save(item);
+            Beverages saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.BEVERAGES);
+            return saved;
         }
         Optional<Employee> empOpt = employeeRepo.findById(userId);
         if (empOpt.isPresent()) {
@@ -68,8 +91,11 @@ public class BeveragesController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can update beverages items");
             }
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
             item.setId(id);
-            return repo.save(item);
+            Beverages saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.BEVERAGES);
+            return saved;
         }
         return Map.of("error", "User not found");
     }
@@ -88,6 +114,7 @@ public class BeveragesController {
                 return Map.of("error", "Beverages product not found with id: " + id);
             }
             repo.deleteById(id);
+            catalogService.refresh(CatalogCategory.BEVERAGES);
             return Map.of("status","deleted", "id", id);
         }
         Optional<Employee> empOpt = employeeRepo.findById(userId);
@@ -102,6 +129,7 @@ public class BeveragesController {
                 return Map.of("error", "Beverages product not found with id: " + id);
             }
             repo.deleteById(id);
+            catalogService.refresh(CatalogCategory.BEVERAGES);
             return Map.of("status","deleted", "id", id);
         }
         return Map.of("error", "User not found");
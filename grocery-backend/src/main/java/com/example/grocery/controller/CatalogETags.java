@@ -0,0 +1,98 @@
+package com.example.grocery.controller;
+
+import com.example.grocery.service.CatalogCategory;
+import com.example.grocery.service.CatalogPayloads;
+import com.example.grocery.service.CatalogSnapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * CatalogETags
+ * Conditional GET support for catalog endpoints. ETags are derived from catalog
+ * snapshot versions, which change on every product write, so an unchanged
+ * catalog is answered with 304 before any query runs or any body is serialized.
+ */
+final class CatalogETags {
+
+    // Browsers may keep the response but must revalidate it on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private CatalogETags() {}
+
+    /**
+     * ETag of a response built from one category
+     */
+    static String forCategory(String resource, CatalogSnapshot snapshot, CatalogCategory category) {
+        return "\"" + resource + "-" + category.getKey() + "-" + snapshot.getVersion(category) + "\"";
+    }
+
+    /**
+     * ETag of a response built from the whole catalog
+     */
+    static String forCatalog(String resource, CatalogSnapshot snapshot) {
+        return "\"" + resource + "-" + snapshot.getVersion() + "\"";
+    }
+
+    /**
+     * 304 when the client already holds this ETag, otherwise 200 with the body built on demand
+     */
+    static <T> ResponseEntity<T> conditional(String ifNoneMatch, String etag, Supplier<T> body) {
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    /**
+     * Like {@link #conditional}, but writes a pre-serialized payload as is: gzip-compressed
+     * when the client accepts it, plain JSON otherwise. The gzip representation gets its own ETag.
+     */
+    static ResponseEntity<byte[]> conditionalEncoded(String ifNoneMatch, String acceptEncoding, String etag,
+                                                     Supplier<CatalogPayloads.Payload> payload) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String tag = gzip ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+        if (matches(ifNoneMatch, tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).cacheControl(REVALIDATE)
+                    .varyBy("Accept-Encoding").build();
+        }
+
+        CatalogPayloads.Payload encoded = payload.get();
+        byte[] body = gzip ? encoded.gzip() : encoded.json();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(tag)
+                .cacheControl(REVALIDATE)
+                .varyBy("Accept-Encoding")
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length);
+        if (gzip) response.header("Content-Encoding", "gzip");
+        return response.body(body);
+    }
+
+    // Accept-Encoding lists codings with optional weights; "gzip;q=0" refuses gzip
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (!coding.equals("gzip") && !coding.equals("*")) continue;
+            boolean refused = parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            if (!refused) return true;
+        }
+        return false;
+    }
+
+    // If-None-Match holds "*" or a comma-separated list of (possibly weak) ETags
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -1,8 +1,19 @@
 package com.example.grocery.controller;
 
+import com.example.grocery.dto.CatalogChange;
+import com.example.grocery.dto.CatalogRow;
 import com.example.grocery.model.User;
 import com.example.grocery.model.Employee;
 import com.example.grocery.repo.*;
+import com.example.grocery.service.CatalogCategory;
+import com.example.grocery.service.CatalogFacets;
+import com.example.grocery.service.CatalogPayloads;
+import com.example.grocery.service.CatalogQueryService;
+import com.example.grocery.service.CatalogService;
+import com.example.grocery.service.CatalogSnapshot;
+import com.example.grocery.service.ProductImageService;
+import com.example.grocery.service.ProductSuggestService;
+import com.example.grocery.service.UnsupportedImageException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +29,8 @@ import java.util.*;
 @RequestMapping("/api/categories")
 public class CategoryController {
 
+    private static final int MAX_BATCH_IDS = 200;
+
     @Autowired
     private BakeryRepository bakeryRepo;
     
@@ -47,160 +60,181 @@ public class CategoryController {
     
     @Autowired
     private EmployeeRepository employeeRepo;
+    
+    @Autowired
+    private CatalogService catalogService;
+    
+    @Autowired
+    private ProductImageService productImageService;
+    
+    @Autowired
+    private CatalogPayloads catalogPayloads;
+    
+    @Autowired
+    private ProductSuggestService productSuggestService;
+    
+    @Autowired
+    private CatalogQueryService catalogQueryService;
 
     /**
      * GET /api/categories
      * Get list of all available categories
      */
     @GetMapping
-    public ResponseEntity<?> getAllCategories() {
+    public ResponseEntity<?> getAllCategories(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
-            List<Map<String, Object>> categories = new ArrayList<>();
-            
-            // Bakery
-            categories.add(Map.of(
-                "id", 1,
-                "name", "Bakery",
-                "endpoint", "/api/bakery",
-                "count", bakeryRepo.countByActiveTrue(),
-                "icon", "🥖",
-                "description", "Fresh bread, cakes, and baked goods"
-            ));
-            
-            // Fruits
-            categories.add(Map.of(
-                "id", 2,
-                "name", "Fruits",
-                "endpoint", "/api/fruits",
-                "count", fruitsRepo.countByActiveTrue(),
-                "icon", "🍎",
-                "description", "Fresh seasonal fruits"
-            ));
-            
-            // Dairy
-            categories.add(Map.of(
-                "id", 3,
-                "name", "Dairy",
-                "endpoint", "/api/dairy",
-                "count", dairyRepo.countByActiveTrue(),
-                "icon", "🥛",
-                "description", "Milk, cheese, yogurt, and dairy products"
-            ));
-            
-            // Meat
-            categories.add(Map.of(
-                "id", 4,
-                "name", "Meat",
-                "endpoint", "/api/meat",
-                "count", meatRepo.countByActiveTrue(),
-                "icon", "🥩",
-                "description", "Fresh meat and poultry"
-            ));
-            
-            // Beverages
-            categories.add(Map.of(
-                "id", 5,
-                "name", "Beverages",
-                "endpoint", "/api/beverages",
-                "count", beveragesRepo.countByActiveTrue(),
-                "icon", "🥤",
-                "description", "Soft drinks, juices, and beverages"
-            ));
-            
-            // Grains
-            categories.add(Map.of(
-                "id", 6,
-                "name", "Grains",
-                "endpoint", "/api/grains",
-                "count", grainsRepo.countByActiveTrue(),
-                "icon", "🌾",
-                "description", "Rice, wheat, and grain products"
+            CatalogSnapshot snapshot = catalogService.snapshot();
+            String etag = CatalogETags.forCatalog("categories", snapshot);
+            return CatalogETags.conditional(ifNoneMatch, etag, () -> categoryList(snapshot));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                "success", false,
+                "error", "Failed to fetch categories: " + e.getMessage()
             ));
-            
-            // Vegetables
+        }
+    }
+
+    // Body of GET /api/categories; only built when the client's copy is out of date
+    private Map<String, Object> categoryList(CatalogSnapshot snapshot) {
+        // Counts of active products come straight from the snapshot, no COUNT queries
+        List<Map<String, Object>> categories = new ArrayList<>();
+        for (CatalogCategory category : CatalogCategory.values()) {
             categories.add(Map.of(
-                "id", 7,
-                "name", "Vegetables",
-                "endpoint", "/api/vegetables",
-                "count", vegetablesRepo.countByActiveTrue(),
-                "icon", "🥬",
-                "description", "Fresh vegetables"
+                "id", category.getId(),
+                "name", category.getLabel(),
+                "endpoint", category.getEndpoint(),
+                "count", snapshot.getActiveCount(category),
+                "icon", category.getIcon(),
+                "description", category.getDescription()
             ));
+        }
+        
+        return Map.of(
+            "success", true,
+            "totalCategories", categories.size(),
+            "categories", categories
+        );
+    }
+
+    /**
+     * GET /api/categories/products?ids=fruits:3,bakery:12,7
+     * Resolve several products at once, across categories (at most 200 ids).
+     * Each id is "category:id", or a bare id for whichever category has an active product with it.
+     * Products come back in request order; ids with no active product are listed under "missing".
+     * Without ids, this path is the "products" category listing below.
+     */
+    @GetMapping(value = "/products", params = "ids")
+    public ResponseEntity<?> getProductsByIds(@RequestParam List<String> ids) {
+        try {
+            List<CatalogService.ProductRef> refs = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            for (String value : ids) {
+                for (String key : value.split(",")) {
+                    if (key.isBlank()) continue;
+                    CatalogService.ProductRef ref = productRef(key.trim());
+                    if (ref == null) {
+                        return ResponseEntity.badRequest().body(Map.of(
+                            "success", false,
+                            "error", "Invalid product id: " + key.trim() + ". Use category:id or id"
+                        ));
+                    }
+                    refs.add(ref);
+                    keys.add(key.trim());
+                }
+            }
+            if (refs.size() > MAX_BATCH_IDS) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "At most " + MAX_BATCH_IDS + " ids per request"
+                ));
+            }
             
-            // General Products
-            categories.add(Map.of(
-                "id", 8,
-                "name", "Products",
-                "endpoint", "/api/products",
-                "count", productRepo.countByActiveTrue(),
-                "icon", "🛒",
-                "description", "General grocery products"
-            ));
+            // Snapshot lookup when the catalog is loaded, otherwise one IN query per table
+            Map<CatalogService.ProductRef, CatalogRow> found = catalogService.findProducts(refs);
+            List<CatalogRow> products = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            Set<CatalogService.ProductRef> seen = new HashSet<>();
+            for (int i = 0; i < refs.size(); i++) {
+                CatalogService.ProductRef ref = refs.get(i);
+                if (!seen.add(ref)) continue;
+                CatalogRow product = found.get(ref);
+                if (product != null) products.add(product);
+                else missing.add(keys.get(i));
+            }
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
-                "totalCategories", categories.size(),
-                "categories", categories
+                "count", products.size(),
+                "products", products,
+                "missing", missing
             ));
             
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(Map.of(
                 "success", false,
-                "error", "Failed to fetch categories: " + e.getMessage()
+                "error", "Failed to fetch products: " + e.getMessage()
             ));
         }
     }
 
+    // "fruits:3" or "3"; null when malformed
+    private static CatalogService.ProductRef productRef(String key) {
+        int colon = key.indexOf(':');
+        CatalogCategory category = null;
+        if (colon >= 0) {
+            category = CatalogCategory.fromKey(key.substring(0, colon));
+            if (category == null) return null;
+        }
+        try {
+            return new CatalogService.ProductRef(category, Long.valueOf(key.substring(colon + 1).trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * GET /api/categories/{categoryName}
      * Get all products from a specific category
+     * With any of price, inStock, q, sort, page or size, returns one filtered page instead
+     * (see /api/categories/all-products)
      * 
      * @param categoryName - bakery, fruits, dairy, meat, beverages, grains, products
      */
     @GetMapping("/{categoryName}")
-    public ResponseEntity<?> getProductsByCategory(@PathVariable String categoryName) {
+    public ResponseEntity<?> getProductsByCategory(@PathVariable String categoryName,
+                                                   @RequestParam(value = "price", required = false) List<String> price,
+                                                   @RequestParam(value = "inStock", required = false) Boolean inStock,
+                                                   @RequestParam(value = "q", required = false) String q,
+                                                   @RequestParam(value = "sort", required = false) String sort,
+                                                   @RequestParam(value = "page", required = false) Integer page,
+                                                   @RequestParam(value = "size", required = false) Integer size,
+                                                   @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+                                                   @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
         try {
-            String category = categoryName.toLowerCase();
-            List<?> products;
-            
-            switch (category) {
-                case "bakery":
-                    products = bakeryRepo.findAll();
-                    break;
-                case "fruits":
-                    products = fruitsRepo.findAll();
-                    break;
-                case "dairy":
-                    products = dairyRepo.findAll();
-                    break;
-                case "meat":
-                    products = meatRepo.findAll();
-                    break;
-                case "beverages":
-                    products = beveragesRepo.findAll();
-                    break;
-                case "grains":
-                    products = grainsRepo.findAll();
-                    break;
-                case "vegetables":
-                    products = vegetablesRepo.findAll();
-                    break;
-                case "products":
-                    products = productRepo.findAll();
-                    break;
-                default:
-                    return ResponseEntity.badRequest().body(Map.of(
-                        "success", false,
-                        "error", "Invalid category. Valid categories: bakery, fruits, dairy, meat, beverages, grains, vegetables, products"
-                    ));
+            CatalogCategory category = CatalogCategory.fromKey(categoryName);
+            if (category == null) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "Invalid category. Valid categories: bakery, fruits, dairy, meat, beverages, grains, vegetables, products"
+                ));
             }
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "category", categoryName,
-                "count", products.size(),
-                "products", products
-            ));
+            if (price != null || inStock != null || q != null || sort != null || page != null || size != null) {
+                return listing(ifNoneMatch, EnumSet.of(category), price, inStock, q, sort, page, size);
+            }
+            
+            // Image-free rows from the catalog snapshot - ONLY ACTIVE PRODUCTS
+            // Serialized and gzipped once per category version
+            CatalogSnapshot snapshot = catalogService.snapshot();
+            List<CatalogRow> products = snapshot.getProducts(category);
+            
+            return CatalogETags.conditionalEncoded(ifNoneMatch, acceptEncoding, CatalogETags.forCategory("category", snapshot, category),
+                () -> catalogPayloads.get("category:" + category.getKey(), snapshot.getVersion(category), () -> Map.of(
+                    "success", true,
+                    "category", category.getKey(),
+                    "count", products.size(),
+                    "products", products
+                )));
             
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(Map.of(
@@ -213,55 +247,174 @@ public class CategoryController {
     /**
      * GET /api/categories/all-products
      * Get all products from all categories combined
+     * 
+     * Filtered listing: with any of the parameters below, returns one page of matching
+     * products plus facet counts instead of the whole catalog
+     * @param category Category keys to keep (repeatable)
+     * @param price Price ranges to keep (repeatable): 0-100, 100-250, 250-500, 500-1000, 1000-2500, 2500+
+     * @param inStock true to keep only products in stock
+     * @param q Search text; results are ranked by relevance unless sort is given
+     * @param sort price (cheapest first), name (A-Z), newest or popularity (best sellers first);
+     *             newest needs exactly one category
+     * @param page Zero-based page number
+     * @param size Page size (default 24, at most 100)
      */
     @GetMapping("/all-products")
-    public ResponseEntity<?> getAllProducts() {
+    public ResponseEntity<?> getAllProducts(@RequestParam(value = "category", required = false) List<String> category,
+                                            @RequestParam(value = "price", required = false) List<String> price,
+                                            @RequestParam(value = "inStock", required = false) Boolean inStock,
+                                            @RequestParam(value = "q", required = false) String q,
+                                            @RequestParam(value = "sort", required = false) String sort,
+                                            @RequestParam(value = "page", required = false) Integer page,
+                                            @RequestParam(value = "size", required = false) Integer size,
+                                            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+                                            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
         try {
-            List<Map<String, Object>> allProducts = new ArrayList<>();
-            
-            // Add products from each category with category label - ONLY ACTIVE PRODUCTS
-            bakeryRepo.findByActiveTrue().forEach(item -> 
-                allProducts.add(createProductMap(item, "Bakery", "🥖"))
-            );
-            
-            fruitsRepo.findByActiveTrue().forEach(item -> 
-                allProducts.add(createProductMap(item, "Fruits", "🍎"))
-            );
-            
-            dairyRepo.findByActiveTrue().forEach(item -> 
-                allProducts.add(createProductMap(item, "Dairy", "🥛"))
-            );
-            
-            meatRepo.findByActiveTrue().forEach(item -> 
-                allProducts.add(createProductMap(item, "Meat", "🥩"))
-            );
-            
-            beveragesRepo.findByActiveTrue().forEach(item -> 
-                allProducts.add(createProductMap(item, "Beverages", "🥤"))
-            );
-            
-            grainsRepo.findByActiveTrue().forEach(item -> 
-                allProducts.add(createProductMap(item, "Grains", "🌾"))
-            );
+            if (category != null || price != null || inStock != null || q != null || sort != null || page != null || size != null) {
+                Set<CatalogCategory> categories = EnumSet.noneOf(CatalogCategory.class);
+                for (String key : category != null ? category : List.<String>of()) {
+                    CatalogCategory selected = CatalogCategory.fromKey(key);
+                    if (selected == null) {
+                        return ResponseEntity.badRequest().body(Map.of(
+                            "success", false,
+                            "error", "Invalid category: " + key
+                        ));
+                    }
+                    categories.add(selected);
+                }
+                return listing(ifNoneMatch, categories, price, inStock, q, sort, page, size);
+            }
             
-            vegetablesRepo.findByActiveTrue().forEach(item -> 
-                allProducts.add(createProductMap(item, "Vegetables", "🥬"))
-            );
+            // Served from the in-memory catalog snapshot - ONLY ACTIVE PRODUCTS,
+            // serialized and gzipped once per catalog version
+            CatalogSnapshot snapshot = catalogService.snapshot();
+            List<CatalogRow> allProducts = snapshot.getAllProducts();
             
-            productRepo.findByActiveTrue().forEach(item -> 
-                allProducts.add(createProductMap(item, "Products", "🛒"))
-            );
+            return CatalogETags.conditionalEncoded(ifNoneMatch, acceptEncoding, CatalogETags.forCatalog("all-products", snapshot),
+                () -> catalogPayloads.get("all-products", snapshot.getVersion(), () -> Map.of(
+                    "success", true,
+                    "version", snapshot.getVersion(),
+                    "totalProducts", allProducts.size(),
+                    "products", allProducts
+                )));
             
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                "success", false,
+                "error", "Failed to fetch all products: " + e.getMessage()
+            ));
+        }
+    }
+
+    // One page of a filtered listing
+    private ResponseEntity<?> listing(String ifNoneMatch, Set<CatalogCategory> categories, List<String> price, Boolean inStock,
+                                      String q, String sort, Integer page, Integer size) {
+        CatalogQueryService.Sort order = CatalogQueryService.Sort.fromKey(sort);
+        if (sort != null && order == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", "Invalid sort. Valid sorts: price, name, newest, popularity"
+            ));
+        }
+        if (order == CatalogQueryService.Sort.NEWEST && categories.size() != 1) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", "sort=newest needs a single category: products are only ordered by age within a category"
+            ));
+        }
+        
+        if (page != null && page < 0) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", "Page must not be negative"
+            ));
+        }
+        Set<String> buckets = priceBuckets(price);
+        for (String bucket : buckets) {
+            if (!CatalogFacets.PRICE_BUCKETS.contains(bucket)) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "error", "Unknown price range: " + bucket + ". Valid ranges: " + String.join(", ", CatalogFacets.PRICE_BUCKETS)
+                ));
+            }
+        }
+        
+        CatalogSnapshot snapshot = catalogService.snapshot();
+        CatalogQueryService.Query query = new CatalogQueryService.Query(categories, buckets,
+                Boolean.TRUE.equals(inStock), q, order, page != null ? page : 0, size);
+        // Sales move the popularity order without a new catalog version, so it gets no ETag
+        if (order == CatalogQueryService.Sort.POPULARITY) {
+            return ResponseEntity.ok(listingBody(snapshot, query));
+        }
+        // Otherwise the body depends only on the query string and the catalog version,
+        // so a matching If-None-Match is answered before the query runs
+        return CatalogETags.conditional(ifNoneMatch, CatalogETags.forCatalog("listing", snapshot),
+                () -> listingBody(snapshot, query));
+    }
+
+    private Map<String, Object> listingBody(CatalogSnapshot snapshot, CatalogQueryService.Query query) {
+        CatalogQueryService.Page result = catalogQueryService.list(snapshot, query);
+        return Map.of(
+            "success", true,
+            "version", snapshot.getVersion(),
+            "totalProducts", result.total(),
+            "page", result.page(),
+            "size", result.size(),
+            "hasMore", result.hasMore(),
+            "products", result.products(),
+            "facets", Map.of(
+                "category", result.categoryCounts(),
+                "price", result.priceCounts(),
+                "inStock", result.inStockCount()
+            )
+        );
+    }
+
+    // Repeated and comma-separated values both work: ?price=0-100&price=100-250 or ?price=0-100,100-250
+    private static Set<String> priceBuckets(List<String> price) {
+        Set<String> buckets = new LinkedHashSet<>();
+        if (price == null) return buckets;
+        for (String value : price) {
+            for (String bucket : value.split(",")) {
+                if (!bucket.isBlank()) buckets.add(bucket.trim());
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * GET /api/categories/changes?since={version}
+     * Product changes since a catalog version returned by all-products or a previous call.
+     * Each product appears at most once, with its latest state (null product when removed).
+     * When the changes are no longer available, "resync" is true and the client
+     * must reload /api/categories/all-products.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getCatalogChanges(@RequestParam(value = "since", required = false) Long since) {
+        try {
+            CatalogSnapshot snapshot = catalogService.snapshot();
+            Optional<List<CatalogChange>> changes = since != null
+                    ? catalogService.changesSince(snapshot, since)
+                    : Optional.empty();
+            
+            if (changes.isEmpty()) {
+                return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "version", snapshot.getVersion(),
+                    "resync", true
+                ));
+            }
             return ResponseEntity.ok(Map.of(
                 "success", true,
-                "totalProducts", allProducts.size(),
-                "products", allProducts
+                "version", snapshot.getVersion(),
+                "resync", false,
+                "changes", changes.get()
             ));
             
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(Map.of(
                 "success", false,
-                "error", "Failed to fetch all products: " + e.getMessage()
+                "error", "Failed to fetch catalog changes: " + e.getMessage()
             ));
         }
     }
@@ -280,41 +433,8 @@ public class CategoryController {
                 ));
             }
             
-            String query = q.toLowerCase();
-            List<Map<String, Object>> results = new ArrayList<>();
-            
-            // Search in each category - ONLY ACTIVE PRODUCTS
-            bakeryRepo.findByActiveTrue().stream()
-                .filter(item -> matchesSearch(item, query))
-                .forEach(item -> results.add(createProductMap(item, "Bakery", "🥖")));
-            
-            fruitsRepo.findByActiveTrue().stream()
-                .filter(item -> matchesSearch(item, query))
-                .forEach(item -> results.add(createProductMap(item, "Fruits", "🍎")));
-            
-            dairyRepo.findByActiveTrue().stream()
-                .filter(item -> matchesSearch(item, query))
-                .forEach(item -> results.add(createProductMap(item, "Dairy", "🥛")));
-            
-            meatRepo.findByActiveTrue().stream()
-                .filter(item -> matchesSearch(item, query))
-                .forEach(item -> results.add(createProductMap(item, "Meat", "🥩")));
-            
-            beveragesRepo.findByActiveTrue().stream()
-                .filter(item -> matchesSearch(item, query))
-                .forEach(item -> results.add(createProductMap(item, "Beverages", "🥤")));
-            
-            grainsRepo.findByActiveTrue().stream()
-                .filter(item -> matchesSearch(item, query))
-                .forEach(item -> results.add(createProductMap(item, "Grains", "🌾")));
-            
-            vegetablesRepo.findByActiveTrue().stream()
-                .filter(item -> matchesSearch(item, query))
-                .forEach(item -> results.add(createProductMap(item, "Vegetables", "🥬")));
-            
-            productRepo.findByActiveTrue().stream()
-                .filter(item -> matchesSearch(item, query))
-                .forEach(item -> results.add(createProductMap(item, "Products", "🛒")));
+            // Ranked lookup in the snapshot's inverted index, typo-tolerant - ONLY ACTIVE PRODUCTS
+            List<CatalogRow> results = catalogService.search(q);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -332,88 +452,77 @@ public class CategoryController {
     }
 
     /**
-     * GET /api/categories/stats
-     * Get statistics about all categories
+     * GET /api/categories/suggest?prefix={prefix}&limit={limit}
+     * Typeahead suggestions: active products with a name word starting with the prefix,
+     * best sellers first (default 8, at most 20)
      */
-    @GetMapping("/stats")
-    public ResponseEntity<?> getCategoryStats() {
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestProducts(@RequestParam(value = "prefix", required = false) String prefix,
+                                             @RequestParam(value = "limit", defaultValue = "8") int limit) {
         try {
-            long totalProducts = bakeryRepo.count() + fruitsRepo.count() + 
-                                dairyRepo.count() + meatRepo.count() + 
-                                beveragesRepo.count() + grainsRepo.count() + 
-                                vegetablesRepo.count() + productRepo.count();
-            
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalCategories", 8);
-            stats.put("totalProducts", totalProducts);
-            stats.put("breakdown", Map.of(
-                "Bakery", bakeryRepo.count(),
-                "Fruits", fruitsRepo.count(),
-                "Dairy", dairyRepo.count(),
-                "Meat", meatRepo.count(),
-                "Beverages", beveragesRepo.count(),
-                "Grains", grainsRepo.count(),
-                "Vegetables", vegetablesRepo.count(),
-                "Products", productRepo.count()
-            ));
+            List<CatalogRow> suggestions = productSuggestService.suggest(prefix, Math.max(1, Math.min(limit, 20)));
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
-                "stats", stats
+                "prefix", prefix != null ? prefix : "",
+                "count", suggestions.size(),
+                "suggestions", suggestions
             ));
             
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(Map.of(
                 "success", false,
-                "error", "Failed to fetch stats: " + e.getMessage()
+                "error", "Suggestions failed: " + e.getMessage()
             ));
         }
     }
 
-    // Helper method to create product map with category info
-    private Map<String, Object> createProductMap(Object item, String category, String icon) {
-        Map<String, Object> map = new HashMap<>();
+    /**
+     * GET /api/categories/stats
+     * Get statistics about all categories
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getCategoryStats(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
-            // Use reflection to get common fields (id, name, price, description, quantity, image)
-            java.lang.reflect.Method getId = item.getClass().getMethod("getId");
-            java.lang.reflect.Method getName = item.getClass().getMethod("getName");
-            java.lang.reflect.Method getPrice = item.getClass().getMethod("getPrice");
-            java.lang.reflect.Method getDescription = item.getClass().getMethod("getDescription");
-            java.lang.reflect.Method getQuantity = item.getClass().getMethod("getQuantity");
-            java.lang.reflect.Method getImage = item.getClass().getMethod("getImage");
-            
-            map.put("id", getId.invoke(item));
-            map.put("name", getName.invoke(item));
-            map.put("price", getPrice.invoke(item));
-            map.put("description", getDescription.invoke(item));
-            map.put("quantity", getQuantity.invoke(item));
-            map.put("image", getImage.invoke(item));
-            map.put("category", category.toLowerCase());  // Lowercase for API consistency
-            map.put("categoryIcon", icon);
-            
+            CatalogSnapshot snapshot = catalogService.snapshot();
+            String etag = CatalogETags.forCatalog("stats", snapshot);
+            return CatalogETags.conditional(ifNoneMatch, etag, () -> categoryStats(snapshot));
         } catch (Exception e) {
-            // Fallback: just return the object as-is
-            map.put("item", item);
-            map.put("category", category.toLowerCase());
-            map.put("categoryIcon", icon);
+            return ResponseEntity.internalServerError().body(Map.of(
+                "success", false,
+                "error", "Failed to fetch stats: " + e.getMessage()
+            ));
         }
-        return map;
     }
 
-    // Helper method to check if an item matches search query
-    private boolean matchesSearch(Object item, String query) {
-        try {
-            java.lang.reflect.Method getName = item.getClass().getMethod("getName");
-            java.lang.reflect.Method getDescription = item.getClass().getMethod("getDescription");
-            
-            String name = (String) getName.invoke(item);
-            String description = (String) getDescription.invoke(item);
-            
-            return (name != null && name.toLowerCase().contains(query)) ||
-                   (description != null && description.toLowerCase().contains(query));
-        } catch (Exception e) {
-            return false;
+    // Body of GET /api/categories/stats; only built when the client's copy is out of date
+    private Map<String, Object> categoryStats(CatalogSnapshot snapshot) {
+        // Maintained with the catalog snapshot on every write; no COUNT queries per request
+        long totalProducts = 0;
+        long activeProducts = 0;
+        Map<String, Object> breakdown = new LinkedHashMap<>();
+        Map<String, Object> activeBreakdown = new LinkedHashMap<>();
+        for (CatalogCategory category : CatalogCategory.values()) {
+            long total = snapshot.getTotalCount(category);
+            int active = snapshot.getActiveCount(category);
+            totalProducts += total;
+            activeProducts += active;
+            breakdown.put(category.getLabel(), total);
+            activeBreakdown.put(category.getLabel(), active);
         }
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalCategories", CatalogCategory.values().length);
+        stats.put("totalProducts", totalProducts);
+        stats.put("activeProducts", activeProducts);
+        stats.put("inactiveProducts", totalProducts - activeProducts);
+        stats.put("breakdown", breakdown);
+        stats.put("activeBreakdown", activeBreakdown);
+        
+        return Map.of(
+            "success", true,
+            "stats", stats
+        );
     }
 
     /**
@@ -482,7 +591,8 @@ public class CategoryController {
                           ((Number) productData.get("price")).doubleValue() : null;
             Integer quantity = productData.get("quantity") instanceof Number ? 
                              ((Number) productData.get("quantity")).intValue() : null;
-            String image = (String) productData.get("image");
+            // Uploaded images go to the image store; a listing URL sent back unchanged keeps the stored image
+            String image = productImageService.prepareForStorage((String) productData.get("image"));
             
             if (name == null || price == null || quantity == null) {
                 return ResponseEntity.badRequest().body(Map.of(
@@ -526,6 +636,11 @@ public class CategoryController {
                 System.out.println("[CategoryController] ✅ Updated in " + newCategory + " table");
             }
             
+            catalogService.refreshAfterCommit(CatalogCategory.fromKey(oldCategory));
+            if (categoryChanged) {
+                catalogService.refreshAfterCommit(CatalogCategory.fromKey(newCategory));
+            }
+            
             System.out.println("[CategoryController] ===== UPDATE SUCCESSFUL =====");
             
             return ResponseEntity.ok(Map.of(
@@ -536,6 +651,11 @@ public class CategoryController {
                 "product", updatedProduct
             ));
             
+        } catch (UnsupportedImageException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", e.getMessage()
+            ));
         } catch (Exception e) {
             System.err.println("[CategoryController] ❌ ERROR: " + e.getMessage());
             e.printStackTrace();
@@ -588,6 +708,8 @@ public class CategoryController {
                 throw new RuntimeException("Failed to soft delete product from " + category + " table");
             }
             
+            catalogService.refreshAfterCommit(CatalogCategory.fromKey(category));
+            
             System.out.println("[CategoryController] ===== SOFT DELETE SUCCESSFUL =====");
             
             return ResponseEntity.ok(Map.of(
@@ -650,15 +772,9 @@ public class CategoryController {
     
     // Helper method to find which category table a product exists in
     private String findProductCategory(Long id) {
-        if (bakeryRepo.findById(id).map(item -> item.isActive()).orElse(false)) return "bakery";
-        if (fruitsRepo.findById(id).map(item -> item.isActive()).orElse(false)) return "fruits";
-        if (dairyRepo.findById(id).map(item -> item.isActive()).orElse(false)) return "dairy";
-        if (meatRepo.findById(id).map(item -> item.isActive()).orElse(false)) return "meat";
-        if (beveragesRepo.findById(id).map(item -> item.isActive()).orElse(false)) return "beverages";
-        if (grainsRepo.findById(id).map(item -> item.isActive()).orElse(false)) return "grains";
-        if (vegetablesRepo.findById(id).map(item -> item.isActive()).orElse(false)) return "vegetables";
-        if (productRepo.findById(id).map(item -> item.isActive()).orElse(false)) return "products";
-        return null; // Product not found in any table or inactive
+        // Answered from the catalog's id directory; null if not found or inactive
+        CatalogCategory category = catalogService.locate(id);
+        return category != null ? category.getKey() : null;
     }
     
     // Helper method to check if product exists in a specific category
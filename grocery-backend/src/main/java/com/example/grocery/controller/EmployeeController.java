@@ -1,10 +1,13 @@
 package com.example.grocery.controller;
 
+import com.example.grocery.dto.OrderItemDTO;
 import com.example.grocery.model.Employee;
 import com.example.grocery.model.User;
 import com.example.grocery.repo.EmployeeRepository;
 import com.example.grocery.repo.UserRepository;
 import com.example.grocery.repo.OrderRepository;
+import com.example.grocery.service.DeliveryDispatcher;
+import com.example.grocery.service.OrderItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
@@ -18,6 +21,10 @@ public class EmployeeController {
     private UserRepository userRepo;
     @Autowired
     private OrderRepository orderRepo;
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private DeliveryDispatcher deliveryDispatcher;
 
     @GetMapping
     public Object all(@RequestHeader("user-id") Long userId) {
@@ -119,6 +126,7 @@ public class EmployeeController {
         
         try {
             Employee savedEmployee = employeeRepo.save(e);
+            deliveryDispatcher.employeesChanged();
             // Return employee data without password
             return Map.of(
                 "id", savedEmployee.getId(),
@@ -145,6 +153,7 @@ public class EmployeeController {
             return Map.of("error", "Only manager can delete employees");
         }
         employeeRepo.deleteById(id);
+        deliveryDispatcher.employeesChanged();
         return Map.of("status", "deleted");
     }
     /**
@@ -170,6 +179,7 @@ public class EmployeeController {
             // Get all orders assigned to this delivery employee
             List<com.example.grocery.model.Order> orders = 
                 orderRepo.findByDeliveryEmployee(employee);
+            Map<Long, List<OrderItemDTO>> itemsByOrder = orderItemService.findItems(orders);
             
             // Convert to DTOs with customer and order details
             List<Map<String, Object>> orderDTOs = new ArrayList<>();
@@ -191,17 +201,7 @@ public class EmployeeController {
                 }
                 
                 // Order items
-                List<Map<String, Object>> items = new ArrayList<>();
-                if (order.getItems() != null) {
-                    for (var item : order.getItems()) {
-                        Map<String, Object> itemMap = new HashMap<>();
-                        itemMap.put("productName", item.getProduct() != null ? item.getProduct().getName() : "Unknown");
-                        itemMap.put("quantity", item.getQuantity());
-                        itemMap.put("price", item.getPrice());
-                        items.add(itemMap);
-                    }
-                }
-                dto.put("items", items);
+                dto.put("items", itemsByOrder.get(order.getId()));
                 
                 orderDTOs.add(dto);
             }
@@ -281,6 +281,7 @@ public class EmployeeController {
         
         try {
             Employee savedEmployee = employeeRepo.save(e);
+            deliveryDispatcher.employeesChanged();
             // Return employee data without password
             return Map.of(
                 "id", savedEmployee.getId(),
@@ -0,0 +1,68 @@
+package com.example.grocery.controller;
+
+import com.example.grocery.model.Employee;
+import com.example.grocery.repo.EmployeeRepository;
+import com.example.grocery.service.OrderEventHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * EventController
+ * Server-Sent Events streams for employee dashboards
+ *
+ * Endpoints:
+ * - GET /api/events/employees/{employeeId} - Order events for one employee
+ *   (their deliveries, plus pending bank payments for payment handlers)
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+
+    @Autowired
+    private EmployeeRepository employeeRepo;
+
+    @Autowired
+    private OrderEventHub orderEventHub;
+
+    /**
+     * GET /api/events/employees/{employeeId}
+     * Stream of order events for an employee's dashboard. Each event is a JSON
+     * {@link com.example.grocery.dto.OrderEvent}; the dashboard refetches its orders when one arrives.
+     *
+     * Browsers reconnect automatically and send the Last-Event-ID header; the missed events
+     * are replayed, or a "resync" event is sent when they are no longer available.
+     * A client opening a new EventSource can pass ?lastEventId= instead.
+     */
+    @GetMapping(value = "/employees/{employeeId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> employeeEvents(
+            @PathVariable Long employeeId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        Optional<Employee> employeeOpt = employeeRepo.findById(employeeId);
+        if (employeeOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        Employee employee = employeeOpt.get();
+
+        Set<String> channels = new LinkedHashSet<>();
+        channels.add(OrderEventHub.employeeChannel(employee.getId()));
+        if ("Payment Handler".equalsIgnoreCase(employee.getRole())) {
+            channels.add(OrderEventHub.PAYMENT_HANDLERS);
+        }
+
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        System.out.println("[EventController] Employee " + employeeId + " subscribed to " + channels +
+                (lastEventId != null ? " (resuming after " + lastEventId + ")" : ""));
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(orderEventHub.subscribe(channels, lastEventId));
+    }
+}
@@ -4,6 +4,7 @@ import com.example.grocery.model.Favourite;
 import com.example.grocery.model.Product;
 import com.example.grocery.repo.FavouriteRepository;
 import com.example.grocery.repo.ProductRepository;
+import com.example.grocery.service.FavouriteIdCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
@@ -12,9 +13,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/favourites")
@@ -26,6 +29,11 @@ public class FavouriteController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private FavouriteIdCache favouriteIdCache;
+
+    private static final int MAX_CHECK_IDS = 500;
+
     /**
      * GET /api/favourites/:userId
      * Get all favourite products for a specific user
@@ -36,11 +44,15 @@ public class FavouriteController {
             // Get all favourite product IDs for the user
             List<Long> productIds = favouriteRepository.findProductIdsByUserId(userId);
             
-            // Fetch full product details for each favourite
+            // Fetch all favourite products in one query, then restore the favourites' order
+            Map<Long, Product> productsById = new LinkedHashMap<>();
+            for (Product product : productRepository.findAllById(productIds)) {
+                productsById.put(product.getId(), product);
+            }
             List<Product> favouriteProducts = new ArrayList<>();
             for (Long productId : productIds) {
-                Optional<Product> product = productRepository.findById(productId);
-                product.ifPresent(favouriteProducts::add);
+                Product product = productsById.get(productId);
+                if (product != null) favouriteProducts.add(product);
             }
             
             return ResponseEntity.ok(favouriteProducts);
@@ -84,6 +96,7 @@ public class FavouriteController {
             // Create and save new favourite
             Favourite favourite = new Favourite(userId, productId);
             favouriteRepository.save(favourite);
+            favouriteIdCache.added(userId, productId);
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(Map.of("message", "Added to favourites successfully", "id", favourite.getId()));
@@ -120,6 +133,7 @@ public class FavouriteController {
 
             // Delete the favourite
             favouriteRepository.deleteByUserIdAndProductId(userId, productId);
+            favouriteIdCache.removed(userId, productId);
 
             return ResponseEntity.ok()
                     .body(Map.of("message", "Removed from favourites successfully"));
@@ -139,7 +153,7 @@ public class FavouriteController {
             @PathVariable Long userId, 
             @PathVariable Long productId) {
         try {
-            boolean isFavourite = favouriteRepository.existsByUserIdAndProductId(userId, productId);
+            boolean isFavourite = favouriteIdCache.productIds(userId).contains(productId);
             return ResponseEntity.ok(Map.of("isFavourite", isFavourite));
         } catch (Exception e) {
             e.printStackTrace();
@@ -148,6 +162,44 @@ public class FavouriteController {
         }
     }
 
+    /**
+     * POST /api/favourites/:userId/check
+     * Check many products at once, e.g. every card of a product grid
+     * Body: { "productIds": [1, 5, 9] }
+     * Response: { "favourites": { "1": true, "5": false, "9": true } }
+     */
+    @PostMapping("/{userId}/check")
+    public ResponseEntity<?> checkFavourites(
+            @PathVariable Long userId,
+            @RequestBody Map<String, Object> body) {
+        try {
+            Object requested = body.get("productIds");
+            if (!(requested instanceof List<?> productIds)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "productIds must be a list of product ids"));
+            }
+            if (productIds.size() > MAX_CHECK_IDS) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "At most " + MAX_CHECK_IDS + " product ids per request"));
+            }
+
+            Set<Long> favouriteIds = favouriteIdCache.productIds(userId);
+            Map<String, Boolean> favourites = new LinkedHashMap<>();
+            for (Object productId : productIds) {
+                Long id = Long.valueOf(String.valueOf(productId));
+                favourites.put(id.toString(), favouriteIds.contains(id));
+            }
+            return ResponseEntity.ok(Map.of("favourites", favourites));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid product id format"));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to check favourite status: " + e.getMessage()));
+        }
+    }
+
     /**
      * DELETE /api/favourites/:userId
      * Clear all favourites for a user
@@ -158,6 +210,7 @@ public class FavouriteController {
         try {
             List<Favourite> favourites = favouriteRepository.findByUserId(userId);
             favouriteRepository.deleteAll(favourites);
+            favouriteIdCache.cleared(userId);
             
             return ResponseEntity.ok()
                     .body(Map.of("message", "All favourites cleared successfully", 
@@ -0,0 +1,133 @@
+package com.example.grocery.controller;
+
+import com.example.grocery.service.CatalogCategory;
+import com.example.grocery.service.ImageStore;
+import com.example.grocery.service.ImageVariantService;
+import com.example.grocery.service.ProductImageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ImageController
+ * Serves product images referenced from catalog listings
+ *
+ * Endpoints:
+ * - GET /api/images/{hash}?w={width} - Image from the content-addressed image store (cached forever),
+ *   optionally scaled down to a thumbnail width
+ * - GET /api/images/{category}/{id} - Image of one product still stored inline
+ */
+@RestController
+@RequestMapping("/api/images")
+public class ImageController {
+
+    @Autowired
+    private ProductImageService productImageService;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    /**
+     * GET /api/images/{hash}?w=256
+     * The URL is derived from the image bytes, so the response never changes:
+     * the hash is a strong ETag and the image may be cached without revalidation.
+     * With w the image is scaled down to the next supported width (96, 256 or 768 px)
+     */
+    @GetMapping("/{hash:[0-9a-f]{64}}")
+    public ResponseEntity<?> getStoredImage(@PathVariable String hash,
+                                            @RequestParam(value = "w", required = false) Integer width,
+                                            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        try {
+            Integer variantWidth = width != null && width > 0 ? ImageVariantService.variantWidth(width) : null;
+            String etag = "\"" + hash + (variantWidth != null ? "-w" + variantWidth : "") + "\"";
+            CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+            if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+
+            Optional<ImageStore.StoredImage> stored = variantWidth != null
+                    ? imageVariantService.findOrCreateVariant(hash, variantWidth)
+                    : Optional.empty();
+            if (stored.isEmpty()) {
+                // No variant for this image (small or not resizable): the original stands in for every width
+                stored = imageStore.find(hash);
+            }
+            // Files stored before uploads were checked may hold other content; never serve it
+            if (stored.isEmpty() || !ImageStore.isImageType(stored.get().contentType())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Image not found: " + hash));
+            }
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(stored.get().contentType()))
+                    .header("X-Content-Type-Options", "nosniff")
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .body(Files.readAllBytes(stored.get().path()));
+        } catch (Exception e) {
+            System.err.println("[ImageController] Error serving image " + hash + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Failed to load image: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/images/{category}/{id}
+     * Stored data URLs are decoded and returned as binary when they hold a PNG, JPEG, GIF or
+     * WebP image (415 otherwise), typed by the bytes rather than the data URL header;
+     * image store and external URLs are answered with a redirect
+     */
+    @GetMapping("/{categoryName}/{id}")
+    public ResponseEntity<?> getProductImage(@PathVariable String categoryName, @PathVariable Long id,
+                                             @RequestParam(value = "w", required = false) Integer width) {
+        try {
+            CatalogCategory category = CatalogCategory.fromKey(categoryName);
+            if (category == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown category: " + categoryName));
+            }
+
+            Optional<String> stored = productImageService.findStoredImage(category, id);
+            if (stored.isEmpty() || stored.get().trim().isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No image for product " + id));
+            }
+
+            String image = stored.get().trim();
+            if (ImageStore.hashFromUrl(image) != null) {
+                String target = width != null ? image + "?w=" + width : image;
+                return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(target)).build();
+            }
+            if (image.startsWith("http://") || image.startsWith("https://")) {
+                return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(image)).build();
+            }
+
+            ProductImageService.ImageData data = ProductImageService.decodeDataUrl(image);
+            if (data == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unsupported image format for product " + id));
+            }
+            // Legacy values were never checked: markup or SVG must not be served from the API origin
+            String contentType = ImageStore.imageType(data.bytes());
+            if (contentType == null) {
+                return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(Map.of("error", "Stored image of product " + id + " is not a supported image type"));
+            }
+            // The image can be replaced under the same URL, so only cache it briefly
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(contentType))
+                    .header("X-Content-Type-Options", "nosniff")
+                    .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic())
+                    .body(data.bytes());
+        } catch (Exception e) {
+            System.err.println("[ImageController] Error serving image: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Failed to load image: " + e.getMessage()));
+        }
+    }
+}
@@ -14,7 +14,17 @@ import com.example.grocery.repo.BeveragesRepository;
 import com.example.grocery.repo.GrainsRepository;
 import com.example.grocery.repo.VegetablesRepository;
 import com.example.grocery.repo.ProductRepository;
+import com.example.grocery.service.CatalogCategory;
+import com.example.grocery.service.CatalogService;
+import com.example.grocery.service.DeliveryDispatcher;
+import com.example.grocery.service.OrderEventHub;
+import com.example.grocery.service.OrderHistoryService;
+import com.example.grocery.service.OrderItemService;
+import com.example.grocery.service.ProductPopularity;
+import com.example.grocery.service.StockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
 
@@ -43,7 +53,22 @@ public class OrderController {
     private VegetablesRepository vegetablesRepo;
     @Autowired
     private ProductRepository productRepo;
+    @Autowired
+    private CatalogService catalogService;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private DeliveryDispatcher deliveryDispatcher;
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+    @Autowired
+    private OrderEventHub orderEventHub;
+    @Autowired
+    private ProductPopularity productPopularity;
 
+    @Transactional
     @PostMapping
     public Object placeOrder(@RequestBody Map<String,Object> body){
         Number cid = (Number)body.get("customerId");
@@ -53,13 +78,19 @@ public class OrderController {
         @SuppressWarnings("unchecked")
         List<Map<String,Object>> itemsRaw = (List<Map<String,Object>>)body.get("items");
         if(itemsRaw==null || itemsRaw.isEmpty()) return Map.of("error","items required");
+        // Each line is validated once and feeds both the order items and the stock reservation,
+        // so the order always records exactly the units taken out of stock
         List<com.example.grocery.model.OrderItem> items = new ArrayList<>();
+        List<StockService.StockLine> stockLines = new ArrayList<>();
+        List<Map<String, Object>> stockErrors = new ArrayList<>();
         double total = 0;
         for(Map<String,Object> item : itemsRaw) {
             Number pid = (Number)item.get("productId");
             Number qty = (Number)item.get("quantity");
             Number price = (Number)item.get("price");
-            if(pid==null || qty==null || price==null) continue;
+            String category = (String)item.get("category"); // Category from frontend
+            if(pid==null || qty==null || price==null) return Map.of("error","productId, quantity and price required for every item");
+            if(qty.intValue() <= 0) return Map.of("error","quantity must be positive");
             com.example.grocery.model.OrderItem oi = new com.example.grocery.model.OrderItem();
             oi.setProduct(new com.example.grocery.model.Product());
             oi.getProduct().setId(pid.longValue());
@@ -67,6 +98,17 @@ public class OrderController {
             oi.setPrice(price.doubleValue());
             total += price.doubleValue() * qty.intValue();
             items.add(oi);
+            
+            CatalogCategory catalogCategory = CatalogCategory.fromKey(category);
+            if (catalogCategory == null) {
+                // No (valid) category sent - use the table that owns this id
+                catalogCategory = catalogService.locate(pid.longValue());
+            }
+            if (catalogCategory == null) {
+                stockErrors.add(insufficientStock(pid.longValue(), qty.intValue(), null));
+                continue;
+            }
+            stockLines.add(new StockService.StockLine(catalogCategory, pid.longValue(), qty.intValue()));
         }
         // Use delivery_address from request if provided, else use user's address if requested
         String useSavedAddress = (String) body.get("useSavedAddress"); // "yes" or "no"
@@ -88,30 +130,20 @@ public class OrderController {
             paymentMethod = "cash";
         }
         
-        // ✅ NEW: Validate and reduce stock BEFORE creating order
-        List<Map<String, Object>> stockErrors = new ArrayList<>();
-        for (Map<String, Object> item : itemsRaw) {
-            Number pid = (Number)item.get("productId");
-            Number qty = (Number)item.get("quantity");
-            String category = (String)item.get("category"); // Category from frontend
-            
-            if (pid == null || qty == null) continue;
-            
-            // Check stock availability
-            boolean hasStock = checkStockAvailability(pid.longValue(), qty.intValue(), category);
-            if (!hasStock) {
-                String productName = getProductName(pid.longValue(), category);
-                stockErrors.add(Map.of(
-                    "productId", pid,
-                    "productName", productName,
-                    "requestedQuantity", qty,
-                    "error", "Insufficient stock"
-                ));
-            }
+        // Bank orders need a receipt - check it before any stock is touched
+        String paymentReceipt = (String) body.get("paymentReceipt");
+        if ("bank".equalsIgnoreCase(paymentMethod) && (paymentReceipt == null || paymentReceipt.trim().isEmpty())) {
+            return Map.of("error", "Payment receipt is required for bank payment");
+        }
+        
+        // ✅ Reserve stock with conditional decrements, in the same transaction as the order insert
+        for (StockService.StockLine shortfall : stockService.reserve(stockLines)) {
+            stockErrors.add(insufficientStock(shortfall.productId(), shortfall.quantity(), shortfall.category()));
         }
         
-        // If any stock errors, return them
+        // If any stock errors, undo the reservations that did succeed and return them
         if (!stockErrors.isEmpty()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Map.of(
                 "error", "Insufficient stock for some items",
                 "stockErrors", stockErrors
@@ -127,10 +159,6 @@ public class OrderController {
         
         if ("bank".equalsIgnoreCase(paymentMethod)) {
             // Bank payment flow - order pending payment review
-            String paymentReceipt = (String) body.get("paymentReceipt");
-            if (paymentReceipt == null || paymentReceipt.trim().isEmpty()) {
-                return Map.of("error", "Payment receipt is required for bank payment");
-            }
             o.setPaymentReceipt(paymentReceipt);
             o.setPaymentStatus("pending");
             o.setStatus("PAYMENT_REVIEW");
@@ -138,7 +166,7 @@ public class OrderController {
             System.out.println("[OrderController] Bank payment order created - pending review");
         } else {
             // Cash on delivery flow - existing logic
-            Employee assignedEmployee = assignDeliveryEmployee();
+            Employee assignedEmployee = deliveryDispatcher.assign();
             o.setStatus("PLACED");
             o.setDeliveryEmployee(assignedEmployee);
             o.setPaymentStatus("cash_on_delivery");
@@ -147,19 +175,19 @@ public class OrderController {
         }
         
         orderRepo.save(o);
+        if ("PAYMENT_REVIEW".equals(o.getStatus())) {
+            orderEventHub.publish("payment.pending", o, OrderEventHub.PAYMENT_HANDLERS);
+        } else if (o.getDeliveryEmployee() != null) {
+            orderEventHub.publish("order.assigned", o, OrderEventHub.employeeChannel(o.getDeliveryEmployee().getId()));
+        }
         
-        // ✅ NEW: Reduce stock AFTER order is saved
-        for (Map<String, Object> item : itemsRaw) {
-            Number pid = (Number)item.get("productId");
-            Number qty = (Number)item.get("quantity");
-            String category = (String)item.get("category");
-            
-            if (pid != null && qty != null) {
-                reduceStock(pid.longValue(), qty.intValue(), category);
-                System.out.println("[OrderController] ✅ Reduced stock: Product ID " + pid + 
-                                 " (" + category + "), Quantity: " + qty);
-            }
+        // Publish the new stock levels to the catalog snapshot once the order commits
+        Set<CatalogCategory> touchedCategories = EnumSet.noneOf(CatalogCategory.class);
+        for (StockService.StockLine line : stockLines) {
+            touchedCategories.add(line.category());
         }
+        touchedCategories.forEach(catalogService::refreshAfterCommit);
+        productPopularity.recordSales(stockLines);
         
         Map<String, Object> response = new HashMap<>();
         response.put("message", "order placed");
@@ -181,21 +209,11 @@ public class OrderController {
         if (managerOpt.isEmpty() || !"manager".equalsIgnoreCase(managerOpt.get().getRole())) {
             return Map.of("error", "Only manager can view all orders");
         }
-        List<Order> orders = orderRepo.findAll();
+        List<Order> orders = orderRepo.findAllWithParticipants();
+        Map<Long, List<com.example.grocery.dto.OrderItemDTO>> itemsByOrder = orderItemService.findItems(orders);
         List<com.example.grocery.dto.OrderDTO> dtos = new ArrayList<>();
         for (Order o : orders) {
-            dtos.add(new com.example.grocery.dto.OrderDTO(
-                o.getId(),
-                o.getCustomer() != null ? o.getCustomer().getId() : null,
-                o.getStatus(),
-                o.getCreatedAt(),
-                o.getDetails(),
-                o.getDeliveryAddress(),
-                o.getItems(),
-                o.getTotal(),
-                o.getDeliveryEmployee() != null ? o.getDeliveryEmployee().getId() : null,
-                o.getDeliveryEmployee() != null ? o.getDeliveryEmployee().getName() : "Not assigned"
-            ));
+            dtos.add(toDTO(o, itemsByOrder.get(o.getId())));
         }
         return dtos;
     }
@@ -206,11 +224,16 @@ public class OrderController {
         if (managerOpt.isEmpty() || !"manager".equalsIgnoreCase(managerOpt.get().getRole())) {
             return Map.of("error", "Only manager can view order details");
         }
-        Optional<Order> orderOpt = orderRepo.findById(id);
+        Optional<Order> orderOpt = orderRepo.findSummaryById(id);
         if (orderOpt.isEmpty()) {
             return Map.of("error", "Order not found");
         }
         Order o = orderOpt.get();
+        return toDTO(o, orderItemService.findItemsByOrderId(List.of(o.getId())).get(o.getId()));
+    }
+
+    // Manager view of an order; items come from the item projection, never the entity graph
+    private static com.example.grocery.dto.OrderDTO toDTO(Order o, List<com.example.grocery.dto.OrderItemDTO> items) {
         return new com.example.grocery.dto.OrderDTO(
             o.getId(),
             o.getCustomer() != null ? o.getCustomer().getId() : null,
@@ -218,13 +241,14 @@ public class OrderController {
             o.getCreatedAt(),
             o.getDetails(),
             o.getDeliveryAddress(),
-            o.getItems(),
+            items,
             o.getTotal(),
             o.getDeliveryEmployee() != null ? o.getDeliveryEmployee().getId() : null,
             o.getDeliveryEmployee() != null ? o.getDeliveryEmployee().getName() : "Not assigned"
         );
     }
 
+        @Transactional
         @PutMapping("/{id}")
         public Object updateOrder(@PathVariable Long id, @RequestBody Map<String, Object> body, @RequestHeader("user-id") Long userId) {
             Optional<User> managerOpt = userRepo.findById(userId);
@@ -236,31 +260,59 @@ public class OrderController {
                 return Map.of("error", "Order not found");
             }
             Order o = orderOpt.get();
+            Long assigneeBefore = DeliveryDispatcher.openAssignee(o);
+            boolean reviewBefore = "PAYMENT_REVIEW".equals(o.getStatus());
             if (body.containsKey("status")) o.setStatus((String) body.get("status"));
             if (body.containsKey("deliveryAddress")) o.setDeliveryAddress((String) body.get("deliveryAddress"));
-            return orderRepo.save(o);
+            Order saved = orderRepo.save(o);
+            deliveryDispatcher.orderChanged(assigneeBefore, DeliveryDispatcher.openAssignee(saved));
+            orderEventHub.publish("order.updated", saved, orderChannels(saved, reviewBefore));
+            return toDTO(saved, orderItemService.findItemsByOrderId(List.of(saved.getId())).get(saved.getId()));
         }
 
+        @Transactional
         @DeleteMapping("/{id}")
         public Object deleteOrder(@PathVariable Long id, @RequestHeader("user-id") Long userId) {
             Optional<User> managerOpt = userRepo.findById(userId);
             if (managerOpt.isEmpty() || !"manager".equalsIgnoreCase(managerOpt.get().getRole())) {
                 return Map.of("error", "Only manager can delete orders");
             }
+            Optional<Order> orderOpt = orderRepo.findById(id);
+            Long openAssignee = orderOpt.map(DeliveryDispatcher::openAssignee).orElse(null);
             orderRepo.deleteById(id);
+            deliveryDispatcher.release(openAssignee);
+            orderOpt.ifPresent(o -> orderEventHub.publish("order.deleted", o, orderChannels(o, false)));
             return Map.of("status", "deleted");
         }
 
+        // Dashboards showing an order: its delivery employee's, and the payment handlers' while it is (or was) in review
+        private static String[] orderChannels(Order order, boolean wasInReview) {
+            Long deliveryEmployeeId = order.getDeliveryEmployee() != null ? order.getDeliveryEmployee().getId() : null;
+            boolean inReview = wasInReview || "PAYMENT_REVIEW".equals(order.getStatus());
+            return new String[] {
+                OrderEventHub.employeeChannel(deliveryEmployeeId),
+                inReview ? OrderEventHub.PAYMENT_HANDLERS : null
+            };
+        }
+
         /**
          * Get all orders for a specific customer
          * Used by CustomerOrderHistory component in frontend
          * No authentication required (customer viewing their own orders)
          * 
+         * Without cursor/limit all orders are returned as a list. With either parameter one page
+         * is returned, newest first: { orders, nextCursor, hasMore }; pass nextCursor back as
+         * cursor to get the following page.
+         * 
          * @param userId The customer's user ID
-         * @return List of orders with full details including payment info
+         * @param cursor nextCursor of the previous page (optional)
+         * @param limit Page size (optional, default orders.history.page-size, max 100)
+         * @return List (or page) of orders with full details including payment info
          */
         @GetMapping("/users/{userId}/orders")
-        public Object getUserOrders(@PathVariable Long userId) {
+        public Object getUserOrders(@PathVariable Long userId,
+                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                    @RequestParam(value = "limit", required = false) Integer limit) {
             try {
                 System.out.println("[OrderController] ═══════════════════════════════════");
                 System.out.println("[OrderController] Getting orders for user ID: " + userId);
@@ -275,9 +327,17 @@ public class OrderController {
                 User user = userOpt.get();
                 System.out.println("[OrderController] User found: " + user.getUsername());
                 
-                // Get all orders for this customer
-                List<Order> orders = orderRepo.findByCustomer(user);
+                // Get all orders for this customer, or one page of them
+                OrderHistoryService.Page page = null;
+                List<Order> orders;
+                if (cursor != null || limit != null) {
+                    page = orderHistoryService.page(user.getId(), cursor, limit);
+                    orders = page.orders();
+                } else {
+                    orders = orderRepo.findByCustomer(user);
+                }
                 System.out.println("[OrderController] Found " + orders.size() + " orders");
+                Map<Long, List<com.example.grocery.dto.OrderItemDTO>> itemsByOrder = orderItemService.findItems(orders);
                 
                 // Convert to detailed DTOs
                 List<Map<String, Object>> orderDTOs = new ArrayList<>();
@@ -322,21 +382,18 @@ public class OrderController {
                     }
                     
                     // Items
-                    dto.put("items", order.getItems());
+                    dto.put("items", itemsByOrder.get(order.getId()));
                     
                     orderDTOs.add(dto);
-                    
-                    System.out.println("[OrderController]   - Order #" + order.getId() + 
-                                     " | Status: " + order.getStatus() + 
-                                     " | Payment: " + order.getPaymentMethod() + 
-                                     " | Total: $" + order.getTotal());
                 }
                 
                 System.out.println("[OrderController] ✅ Returning " + orderDTOs.size() + " orders");
                 System.out.println("[OrderController] ═══════════════════════════════════");
                 
-                return orderDTOs;
+                return page != null ? historyPage(orderDTOs, page) : orderDTOs;
                 
+            } catch (IllegalArgumentException e) {
+                return Map.of("error", e.getMessage());
             } catch (Exception e) {
                 System.err.println("[OrderController] ❌ Error fetching user orders: " + e.getMessage());
                 e.printStackTrace();
@@ -347,11 +404,16 @@ public class OrderController {
         /**
          * Get orders for a specific customer
          * Public endpoint for customers to view their own orders
+         * Supports the same cursor/limit paging as /users/{userId}/orders
          * @param customerId The customer's user ID
-         * @return List of orders for the customer
+         * @param cursor nextCursor of the previous page (optional)
+         * @param limit Page size (optional)
+         * @return List (or page) of orders for the customer
          */
         @GetMapping("/customer/{customerId}")
-        public Object getCustomerOrders(@PathVariable Long customerId) {
+        public Object getCustomerOrders(@PathVariable Long customerId,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "limit", required = false) Integer limit) {
             try {
                 System.out.println("[OrderController] Getting orders for customer ID: " + customerId);
                 
@@ -363,9 +425,17 @@ public class OrderController {
                 
                 User customer = customerOpt.get();
                 
-                // Get all orders for this customer
-                List<Order> orders = orderRepo.findByCustomer(customer);
+                // Get all orders for this customer, or one page of them
+                OrderHistoryService.Page page = null;
+                List<Order> orders;
+                if (cursor != null || limit != null) {
+                    page = orderHistoryService.page(customer.getId(), cursor, limit);
+                    orders = page.orders();
+                } else {
+                    orders = orderRepo.findByCustomer(customer);
+                }
                 System.out.println("[OrderController] Found " + orders.size() + " orders for customer: " + customer.getUsername());
+                Map<Long, List<com.example.grocery.dto.OrderItemDTO>> itemsByOrder = orderItemService.findItems(orders);
                 
                 // Convert to simple DTOs for customer view
                 List<Map<String, Object>> orderDTOs = new ArrayList<>();
@@ -384,17 +454,7 @@ public class OrderController {
                     dto.put("paymentStatus", order.getPaymentStatus());
                     
                     // Order items
-                    List<Map<String, Object>> itemsList = new ArrayList<>();
-                    if (order.getItems() != null) {
-                        for (com.example.grocery.model.OrderItem item : order.getItems()) {
-                            Map<String, Object> itemMap = new HashMap<>();
-                            itemMap.put("productId", item.getProduct() != null ? item.getProduct().getId() : null);
-                            itemMap.put("quantity", item.getQuantity());
-                            itemMap.put("price", item.getPrice());
-                            itemsList.add(itemMap);
-                        }
-                    }
-                    dto.put("items", itemsList);
+                    dto.put("items", itemsByOrder.get(order.getId()));
                     
                     // Delivery employee info (if assigned)
                     if (order.getDeliveryEmployee() != null) {
@@ -405,8 +465,10 @@ public class OrderController {
                 }
                 
                 System.out.println("[OrderController] ✅ Returning " + orderDTOs.size() + " orders for customer");
-                return orderDTOs;
+                return page != null ? historyPage(orderDTOs, page) : orderDTOs;
                 
+            } catch (IllegalArgumentException e) {
+                return Map.of("error", e.getMessage());
             } catch (Exception e) {
                 System.err.println("[OrderController] ❌ Error fetching customer orders: " + e.getMessage());
                 e.printStackTrace();
@@ -414,44 +476,16 @@ public class OrderController {
             }
         }
 
-        /**
-         * Automatically assigns a delivery employee to an order using round-robin algorithm
-         * @return Employee assigned for delivery, or null if no delivery employees available
-         */
-        private Employee assignDeliveryEmployee() {
-            // Get all delivery employees
-            List<Employee> deliveryEmployees = employeeRepo.findByRoleIgnoreCase("Delivery");
-            
-            if (deliveryEmployees.isEmpty()) {
-                System.out.println("[OrderController] Warning: No delivery employees found in system");
-                return null;
-            }
-            
-            // Sort delivery employees by ID to ensure consistent ordering
-            deliveryEmployees.sort(Comparator.comparing(Employee::getId));
-            
-            // Count how many orders each delivery employee currently has
-            Map<Long, Long> employeeOrderCount = new HashMap<>();
-            for (Employee emp : deliveryEmployees) {
-                long count = orderRepo.findAll().stream()
-                    .filter(o -> o.getDeliveryEmployee() != null && 
-                                 o.getDeliveryEmployee().getId().equals(emp.getId()))
-                    .count();
-                employeeOrderCount.put(emp.getId(), count);
-            }
-            
-            // Find the delivery employee with the least orders
-            Employee assignedEmployee = deliveryEmployees.stream()
-                .min(Comparator.comparing(emp -> employeeOrderCount.getOrDefault(emp.getId(), 0L)))
-                .orElse(deliveryEmployees.get(0)); // Fallback to first employee
-            
-            System.out.println("[OrderController] Available delivery employees: " + deliveryEmployees.size() + 
-                             ", Assigning to: " + assignedEmployee.getName() + " (ID: " + assignedEmployee.getId() + 
-                             "), Current orders: " + employeeOrderCount.getOrDefault(assignedEmployee.getId(), 0L));
-            
-            return assignedEmployee;
+        // Paged order history response; nextCursor is null on the last page
+        private static Map<String, Object> historyPage(List<Map<String, Object>> orderDTOs, OrderHistoryService.Page page) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("orders", orderDTOs);
+            response.put("nextCursor", page.nextCursor());
+            response.put("hasMore", page.hasMore());
+            return response;
         }
 
+        @Transactional
         @PutMapping("/{id}/approve-payment")
     public Object approvePayment(
             @PathVariable Long id,
@@ -496,16 +530,21 @@ public class OrderController {
             order.setApprovedByName(employee.getName());
             order.setApprovedAt(new java.sql.Timestamp(System.currentTimeMillis()));
 
-            Employee deliveryEmployee = assignDeliveryEmployee();
+            Employee deliveryEmployee = deliveryDispatcher.assign();
             order.setDeliveryEmployee(deliveryEmployee);
             orderRepo.save(order);
+            orderEventHub.publish("payment.approved", order, OrderEventHub.PAYMENT_HANDLERS,
+                    OrderEventHub.employeeChannel(deliveryEmployee != null ? deliveryEmployee.getId() : null));
 
             return Map.of("success", true, "message", "Payment approved", "orderId", order.getId());
         } catch (Exception e) {
+            // Roll back so the delivery assignment is released along with the order update
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Map.of("error", e.getMessage());
         }
     }
 
+    @Transactional
     @PutMapping("/{id}/reject-payment")
     public Object rejectPayment(
             @PathVariable Long id,
@@ -557,9 +596,11 @@ public class OrderController {
             order.setRejectionReason(reason);
             order.setRejectedAt(new java.sql.Timestamp(System.currentTimeMillis()));
             orderRepo.save(order);
+            orderEventHub.publish("payment.rejected", order, OrderEventHub.PAYMENT_HANDLERS);
 
             return Map.of("success", true, "message", "Payment rejected", "orderId", order.getId());
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Map.of("error", e.getMessage());
         }
     }
@@ -573,6 +614,7 @@ public class OrderController {
      * @param body Request body containing employeeId for validation
      * @return Success response with updated order details
      */
+    @Transactional
     @PutMapping("/{orderId}/mark-delivered")
     public Object markOrderAsDelivered(
             @PathVariable Long orderId,
@@ -638,6 +680,8 @@ public class OrderController {
             
             // Save updated order
             Order updatedOrder = orderRepo.save(order);
+            deliveryDispatcher.release(order.getDeliveryEmployee().getId());
+            orderEventHub.publish("order.delivered", updatedOrder, OrderEventHub.employeeChannel(order.getDeliveryEmployee().getId()));
             
             System.out.println("[OrderController] ✅ Order marked as delivered successfully");
             System.out.println("[OrderController] Order #" + orderId + ": " + oldStatus + " → DELIVERED");
@@ -659,6 +703,8 @@ public class OrderController {
         } catch (Exception e) {
             System.err.println("[OrderController] ❌ Error marking order as delivered: " + e.getMessage());
             e.printStackTrace();
+            // Roll back so the open-order count is only released for a delivery that was saved
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Map.of(
                 "error", "Failed to mark order as delivered",
                 "details", e.getMessage(),
@@ -668,151 +714,15 @@ public class OrderController {
     }
     
     /**
-     * Check if sufficient stock is available for a product
-     * @param productId The product ID
-     * @param quantity The requested quantity
-     * @param category The product category (bakery, fruits, dairy, etc.)
-     * @return true if stock is available, false otherwise
+     * Stock error entry for the placeOrder response
      */
-    private boolean checkStockAvailability(Long productId, int quantity, String category) {
-        try {
-            if (category == null || category.trim().isEmpty()) {
-                // Try to find in all categories
-                return checkStockInAllCategories(productId, quantity);
-            }
-            
-            String categoryLower = category.toLowerCase().trim();
-            
-            switch (categoryLower) {
-                case "bakery":
-                    return bakeryRepo.findById(productId)
-                        .map(p -> p.getQuantity() >= quantity)
-                        .orElse(false);
-                        
-                case "fruits":
-                    return fruitsRepo.findById(productId)
-                        .map(p -> p.getQuantity() >= quantity)
-                        .orElse(false);
-                        
-                case "dairy":
-                    return dairyRepo.findById(productId)
-                        .map(p -> p.getQuantity() >= quantity)
-                        .orElse(false);
-                        
-                case "meat":
-                    return meatRepo.findById(productId)
-                        .map(p -> p.getQuantity() >= quantity)
-                        .orElse(false);
-                        
-                case "beverages":
-                    return beveragesRepo.findById(productId)
-                        .map(p -> p.getQuantity() >= quantity)
-                        .orElse(false);
-                        
-                case "grains":
-                    return grainsRepo.findById(productId)
-                        .map(p -> p.getQuantity() >= quantity)
-                        .orElse(false);
-                        
-                case "vegetables":
-                    return vegetablesRepo.findById(productId)
-                        .map(p -> p.getQuantity() >= quantity)
-                        .orElse(false);
-                        
-                case "products":
-                    return productRepo.findById(productId)
-                        .map(p -> p.getQuantity() >= quantity)
-                        .orElse(false);
-                        
-                default:
-                    System.err.println("[OrderController] Unknown category: " + category);
-                    return false;
-            }
-        } catch (Exception e) {
-            System.err.println("[OrderController] Error checking stock: " + e.getMessage());
-            return false;
-        }
-    }
-    
-    /**
-     * Reduce stock quantity for a product
-     * @param productId The product ID
-     * @param quantity The quantity to reduce
-     * @param category The product category
-     */
-    private void reduceStock(Long productId, int quantity, String category) {
-        try {
-            if (category == null || category.trim().isEmpty()) {
-                // Try to reduce in all categories
-                reduceStockInAllCategories(productId, quantity);
-                return;
-            }
-            
-            String categoryLower = category.toLowerCase().trim();
-            
-            switch (categoryLower) {
-                case "bakery":
-                    bakeryRepo.findById(productId).ifPresent(p -> {
-                        p.setQuantity(p.getQuantity() - quantity);
-                        bakeryRepo.save(p);
-                    });
-                    break;
-                    
-                case "fruits":
-                    fruitsRepo.findById(productId).ifPresent(p -> {
-                        p.setQuantity(p.getQuantity() - quantity);
-                        fruitsRepo.save(p);
-                    });
-                    break;
-                    
-                case "dairy":
-                    dairyRepo.findById(productId).ifPresent(p -> {
-                        p.setQuantity(p.getQuantity() - quantity);
-                        dairyRepo.save(p);
-                    });
-                    break;
-                    
-                case "meat":
-                    meatRepo.findById(productId).ifPresent(p -> {
-                        p.setQuantity(p.getQuantity() - quantity);
-                        meatRepo.save(p);
-                    });
-                    break;
-                    
-                case "beverages":
-                    beveragesRepo.findById(productId).ifPresent(p -> {
-                        p.setQuantity(p.getQuantity() - quantity);
-                        beveragesRepo.save(p);
-                    });
-                    break;
-                    
-                case "grains":
-                    grainsRepo.findById(productId).ifPresent(p -> {
-                        p.setQuantity(p.getQuantity() - quantity);
-                        grainsRepo.save(p);
-                    });
-                    break;
-                    
-                case "vegetables":
-                    vegetablesRepo.findById(productId).ifPresent(p -> {
-                        p.setQuantity(p.getQuantity() - quantity);
-                        vegetablesRepo.save(p);
-                    });
-                    break;
-                    
-                case "products":
-                    productRepo.findById(productId).ifPresent(p -> {
-                        p.setQuantity(p.getQuantity() - quantity);
-                        productRepo.save(p);
-                    });
-                    break;
-                    
-                default:
-                    System.err.println("[OrderController] Cannot reduce stock - unknown category: " + category);
-            }
-        } catch (Exception e) {
-            System.err.println("[OrderController] Error reducing stock: " + e.getMessage());
-        }
+    private Map<String, Object> insufficientStock(Long productId, int quantity, CatalogCategory category) {
+        return Map.of(
+            "productId", productId,
+            "productName", getProductName(productId, category != null ? category.getKey() : null),
+            "requestedQuantity", quantity,
+            "error", "Insufficient stock"
+        );
     }
     
     /**
@@ -824,7 +734,9 @@ public class OrderController {
     private String getProductName(Long productId, String category) {
         try {
             if (category == null || category.trim().isEmpty()) {
-                return "Unknown Product";
+                CatalogCategory located = catalogService.locate(productId);
+                if (located == null) return "Unknown Product";
+                category = located.getKey();
             }
             
             String categoryLower = category.toLowerCase().trim();
@@ -853,59 +765,4 @@ public class OrderController {
             return "Unknown Product";
         }
     }
-    
-    /**
-     * Fallback: Check stock in all categories if category not specified
-     */
-    private boolean checkStockInAllCategories(Long productId, int quantity) {
-        // Try each repository
-        if (bakeryRepo.findById(productId).map(p -> p.getQuantity() >= quantity).orElse(false)) return true;
-        if (fruitsRepo.findById(productId).map(p -> p.getQuantity() >= quantity).orElse(false)) return true;
-        if (dairyRepo.findById(productId).map(p -> p.getQuantity() >= quantity).orElse(false)) return true;
-        if (meatRepo.findById(productId).map(p -> p.getQuantity() >= quantity).orElse(false)) return true;
-        if (beveragesRepo.findById(productId).map(p -> p.getQuantity() >= quantity).orElse(false)) return true;
-        if (grainsRepo.findById(productId).map(p -> p.getQuantity() >= quantity).orElse(false)) return true;
-        if (vegetablesRepo.findById(productId).map(p -> p.getQuantity() >= quantity).orElse(false)) return true;
-        if (productRepo.findById(productId).map(p -> p.getQuantity() >= quantity).orElse(false)) return true;
-        return false;
-    }
-    
-    /**
-     * Fallback: Reduce stock in all categories if category not specified
-     */
-    private void reduceStockInAllCategories(Long productId, int quantity) {
-        // Try each repository
-        bakeryRepo.findById(productId).ifPresent(p -> {
-            p.setQuantity(p.getQuantity() - quantity);
-            bakeryRepo.save(p);
-        });
-        fruitsRepo.findById(productId).ifPresent(p -> {
-            p.setQuantity(p.getQuantity() - quantity);
-            fruitsRepo.save(p);
-        });
-        dairyRepo.findById(productId).ifPresent(p -> {
-            p.setQuantity(p.getQuantity() - quantity);
-            dairyRepo.save(p);
-        });
-        meatRepo.findById(productId).ifPresent(p -> {
-            p.setQuantity(p.getQuantity() - quantity);
-            meatRepo.save(p);
-        });
-        beveragesRepo.findById(productId).ifPresent(p -> {
-            p.setQuantity(p.getQuantity() - quantity);
-            beveragesRepo.save(p);
-        });
-        grainsRepo.findById(productId).ifPresent(p -> {
-            p.setQuantity(p.getQuantity() - quantity);
-            grainsRepo.save(p);
-        });
-        vegetablesRepo.findById(productId).ifPresent(p -> {
-            p.setQuantity(p.getQuantity() - quantity);
-            vegetablesRepo.save(p);
-        });
-        productRepo.findById(productId).ifPresent(p -> {
-            p.setQuantity(p.getQuantity() - quantity);
-            productRepo.save(p);
-        });
-    }
 }
@@ -1,12 +1,18 @@
 package com.example.grocery.controller;
 
+import com.example.grocery.dto.OrderItemDTO;
 import com.example.grocery.model.Order;
 import com.example.grocery.model.Employee;
 import com.example.grocery.repo.OrderRepository;
 import com.example.grocery.repo.EmployeeRepository;
+import com.example.grocery.service.DeliveryDispatcher;
+import com.example.grocery.service.OrderEventHub;
+import com.example.grocery.service.OrderItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -22,6 +28,15 @@ public class PaymentController {
     @Autowired
     private EmployeeRepository employeeRepo;
 
+    @Autowired
+    private DeliveryDispatcher deliveryDispatcher;
+
+    @Autowired
+    private OrderEventHub orderEventHub;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
     /**
      * GET /api/payments/pending
      * Get all orders pending payment review
@@ -43,11 +58,11 @@ public class PaymentController {
                         .body(Map.of("error", "Only Payment Handler employees can view pending payments"));
             }
 
-            // Get all orders with status "PAYMENT_REVIEW" and payment method "bank"
-            List<Order> allOrders = orderRepo.findAll();
-            List<Map<String, Object>> pendingPayments = allOrders.stream()
-                    .filter(o -> "PAYMENT_REVIEW".equals(o.getStatus()) && "bank".equalsIgnoreCase(o.getPaymentMethod()))
-                    .map(this::convertOrderToDTO)
+            // Get all orders with status "PAYMENT_REVIEW" and payment method "bank" (indexed query)
+            List<Order> orders = orderRepo.findPendingBankPayments();
+            Map<Long, List<OrderItemDTO>> itemsByOrder = orderItemService.findItems(orders);
+            List<Map<String, Object>> pendingPayments = orders.stream()
+                    .map(o -> convertOrderToDTO(o, itemsByOrder.get(o.getId())))
                     .collect(Collectors.toList());
 
             return ResponseEntity.ok(pendingPayments);
@@ -62,6 +77,7 @@ public class PaymentController {
      * POST /api/payments/approve/:orderId
      * Approve a bank payment
      */
+    @Transactional
     @PostMapping("/approve/{orderId}")
     public ResponseEntity<?> approvePayment(
             @PathVariable Long orderId,
@@ -104,10 +120,12 @@ public class PaymentController {
             order.setApprovedAt(new java.sql.Timestamp(System.currentTimeMillis()));
 
             // Assign a delivery employee
-            Employee deliveryEmployee = assignDeliveryEmployee();
+            Employee deliveryEmployee = deliveryDispatcher.assign();
             order.setDeliveryEmployee(deliveryEmployee);
 
             orderRepo.save(order);
+            orderEventHub.publish("payment.approved", order, OrderEventHub.PAYMENT_HANDLERS,
+                    OrderEventHub.employeeChannel(deliveryEmployee != null ? deliveryEmployee.getId() : null));
 
             System.out.println("[PaymentController] Payment approved by: " + employee.getName() +
                     ", Order assigned to delivery employee: " + 
@@ -121,6 +139,8 @@ public class PaymentController {
             ));
         } catch (Exception e) {
             e.printStackTrace();
+            // Roll back so the delivery assignment is released along with the order update
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to approve payment: " + e.getMessage()));
         }
@@ -130,6 +150,7 @@ public class PaymentController {
      * POST /api/payments/reject/:orderId
      * Reject a bank payment
      */
+    @Transactional
     @PostMapping("/reject/{orderId}")
     public ResponseEntity<?> rejectPayment(
             @PathVariable Long orderId,
@@ -182,6 +203,7 @@ public class PaymentController {
             order.setRejectedAt(new java.sql.Timestamp(System.currentTimeMillis()));
 
             orderRepo.save(order);
+            orderEventHub.publish("payment.rejected", order, OrderEventHub.PAYMENT_HANDLERS);
 
             System.out.println("[PaymentController] Payment rejected by: " + employee.getName() +
                     ", Reason: " + reason);
@@ -194,49 +216,16 @@ public class PaymentController {
             ));
         } catch (Exception e) {
             e.printStackTrace();
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to reject payment: " + e.getMessage()));
         }
     }
 
-    /**
-     * Helper method to assign a delivery employee using round-robin
-     */
-    private Employee assignDeliveryEmployee() {
-        List<Employee> deliveryEmployees = employeeRepo.findByRoleIgnoreCase("Delivery");
-        if (deliveryEmployees.isEmpty()) {
-            System.out.println("[PaymentController] No delivery employees available");
-            return null;
-        }
-
-        // Sort delivery employees by ID to ensure consistent ordering
-        deliveryEmployees.sort(Comparator.comparing(Employee::getId));
-        
-        // Count how many orders each delivery employee currently has
-        Map<Long, Long> employeeOrderCount = new HashMap<>();
-        for (Employee emp : deliveryEmployees) {
-            long count = orderRepo.findAll().stream()
-                .filter(o -> o.getDeliveryEmployee() != null && 
-                             o.getDeliveryEmployee().getId().equals(emp.getId()))
-                .count();
-            employeeOrderCount.put(emp.getId(), count);
-        }
-        
-        // Find the delivery employee with the least orders
-        Employee assigned = deliveryEmployees.stream()
-            .min(Comparator.comparing(emp -> employeeOrderCount.getOrDefault(emp.getId(), 0L)))
-            .orElse(deliveryEmployees.get(0)); // Fallback to first employee
-        
-        System.out.println("[PaymentController] Available delivery employees: " + deliveryEmployees.size() +
-                ", Assigning to: " + assigned.getName() + " (ID: " + assigned.getId() + 
-                "), Current orders: " + employeeOrderCount.getOrDefault(assigned.getId(), 0L));
-        return assigned;
-    }
-
     /**
      * Helper method to convert Order to DTO
      */
-    private Map<String, Object> convertOrderToDTO(Order order) {
+    private Map<String, Object> convertOrderToDTO(Order order, List<OrderItemDTO> items) {
         Map<String, Object> dto = new HashMap<>();
         dto.put("id", order.getId());
         dto.put("customerId", order.getCustomer() != null ? order.getCustomer().getId() : null);
@@ -252,16 +241,6 @@ public class PaymentController {
         dto.put("details", order.getDetails());
 
         // Include order items
-        List<Map<String, Object>> items = new ArrayList<>();
-        if (order.getItems() != null) {
-            for (var item : order.getItems()) {
-                Map<String, Object> itemMap = new HashMap<>();
-                itemMap.put("productId", item.getProduct() != null ? item.getProduct().getId() : null);
-                itemMap.put("quantity", item.getQuantity());
-                itemMap.put("price", item.getPrice());
-                items.add(itemMap);
-            }
-        }
         dto.put("items", items);
 
         return dto;
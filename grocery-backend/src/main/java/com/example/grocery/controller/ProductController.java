@@ -1,11 +1,16 @@
 package com.example.grocery.controller;
 
+import com.example.grocery.dto.CatalogRow;
 import com.example.grocery.model.Product;
 import com.example.grocery.model.User;
 import com.example.grocery.model.Employee;
 import com.example.grocery.repo.ProductRepository;
 import com.example.grocery.repo.UserRepository;
 import com.example.grocery.repo.EmployeeRepository;
+import com.example.grocery.service.CatalogCategory;
+import com.example.grocery.service.CatalogService;
+import com.example.grocery.service.CatalogSnapshot;
+import com.example.grocery.service.ProductImageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,9 +26,17 @@ public class ProductController {
     private UserRepository userRepo;
     @Autowired
     private EmployeeRepository employeeRepo;
+    @Autowired
+    private CatalogService catalogService;
+    @Autowired
+    private ProductImageService productImageService;
 
     @GetMapping
-    public List<Product> all(){ return repo.findByActiveTrue(); }
+    public ResponseEntity<List<CatalogRow>> all(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch){
+        CatalogSnapshot snapshot = catalogService.snapshot();
+        return CatalogETags.conditional(ifNoneMatch, CatalogETags.forCategory("list", snapshot, CatalogCategory.PRODUCTS),
+                () -> snapshot.getProducts(CatalogCategory.PRODUCTS));
+    }
 
     @PostMapping
     public Object createProduct(@RequestBody Product item, @RequestHeader("user-id") Long userId) {
@@ -34,7 +47,10 @@ public class ProductController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can create general products");
             }
-            return repo.save(item);
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
+            Product saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.PRODUCTS);
+            return saved;
         }
         Optional<Employee> empOpt = employeeRepo.findById(userId);
         if (empOpt.isPresent()) {
@@ -43,7 +59,10 @@ public class ProductController {
             if (!"manager".equalsIgnoreCase(role) && !"worker".equalsIgnoreCase(role) && !"worker employee".equalsIgnoreCase(role)) {
                 return Map.of("error", "Only manager or worker can create general products");
             }
-            return repo.save(item);
+            item.setImage(productImageService.prepareForStorage(item.getImage()));
+            Product saved = repo.save(item);
+            catalogService.refresh(CatalogCategory.PRODUCTS);
+            return saved;
         }
         return Map.of("error", "User not found");
     }
@@ -77,9 +96,11 @@ public class ProductController {
             existing.setPrice(item.getPrice());
             existing.setQuantity(item.getQuantity());
             if (item.getImage() != null) {
-                existing.setImage(item.getImage());
+                existing.setImage(productImageService.prepareForStorage(item.getImage()));
             }
-            return repo.save(existing);
+            Product saved = repo.save(existing);
+            catalogService.refresh(CatalogCategory.PRODUCTS);
+            return saved;
         }
         Optional<Employee> empOpt = employeeRepo.findById(userId);
         if (empOpt.isPresent()) {
@@ -105,9 +126,11 @@ public class ProductController {
             existing.setPrice(item.getPrice());
             existing.setQuantity(item.getQuantity());
             if (item.getImage() != null) {
-                existing.setImage(item.getImage());
+                existing.setImage(productImageService.prepareForStorage(item.getImage()));
             }
-            return repo.save(existing);
+            Product saved = repo.save(existing);
+            catalogService.refresh(CatalogCategory.PRODUCTS);
+            return saved;
         }
         return Map.of("error", "User not found");
     }
@@ -135,6 +158,7 @@ public class ProductController {
                 Product product = productOpt.get();
                 product.setActive(false);
                 repo.save(product);
+                catalogService.refresh(CatalogCategory.PRODUCTS);
                 return ResponseEntity.ok(Map.of("status","deleted", "id", id, "message", "Product marked as inactive"));
             }
             Optional<Employee> empOpt = employeeRepo.findById(userId);
@@ -153,6 +177,7 @@ public class ProductController {
                 Product product = productOpt.get();
                 product.setActive(false);
                 repo.save(product);
+                catalogService.refresh(CatalogCategory.PRODUCTS);
                 return ResponseEntity.ok(Map.of("status","deleted", "id", id, "message", "Product marked as inactive"));
             }
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "User not found"));
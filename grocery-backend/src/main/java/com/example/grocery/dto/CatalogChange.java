@@ -0,0 +1,19 @@
+package com.example.grocery.dto;
+
+/**
+ * CatalogChange
+ * One entry of the catalog change feed (/api/categories/changes)
+ *
+ * @param version Catalog version that introduced the change
+ * @param type created, updated, stock (only the quantity changed) or removed (deleted or deactivated)
+ * @param category Category key of the product
+ * @param id Product id (unique within its category only)
+ * @param product The product as it is now; null when removed
+ */
+public record CatalogChange(
+        long version,
+        String type,
+        String category,
+        Long id,
+        CatalogRow product) {
+}
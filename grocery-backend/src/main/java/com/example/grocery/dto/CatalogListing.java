@@ -0,0 +1,17 @@
+package com.example.grocery.dto;
+
+/**
+ * CatalogListing
+ * Projection of a category row filled directly by the repository listing queries.
+ * Inline base64 image data never leaves the database: image holds only short
+ * references (image store or external URLs) and is null for data URLs.
+ */
+public record CatalogListing(
+        Long id,
+        String name,
+        String description,
+        Double price,
+        Integer quantity,
+        String image,
+        Boolean hasImage) {
+}
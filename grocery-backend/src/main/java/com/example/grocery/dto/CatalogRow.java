@@ -0,0 +1,17 @@
+package com.example.grocery.dto;
+
+/**
+ * CatalogRow
+ * Flat, category-tagged view of a product as returned by the catalog endpoints
+ * (/api/categories/all-products, /api/categories/search)
+ */
+public record CatalogRow(
+        Long id,
+        String name,
+        double price,
+        String description,
+        int quantity,
+        String image,
+        String category,
+        String categoryIcon) {
+}
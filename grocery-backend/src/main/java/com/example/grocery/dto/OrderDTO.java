@@ -1,6 +1,5 @@
 package com.example.grocery.dto;
 
-import com.example.grocery.model.OrderItem;
 import java.util.Date;
 import java.util.List;
 
@@ -11,7 +10,7 @@ public class OrderDTO {
     private Date createdAt;
     private String details;
     private String deliveryAddress;
-    private List<OrderItem> items;
+    private List<OrderItemDTO> items;
     private double total;
     private Long deliveryEmployeeId;
     private String deliveryEmployeeName;
@@ -22,7 +21,7 @@ public class OrderDTO {
     private String paymentHandlerName;
 
     public OrderDTO(Long id, Long customerId, String status, Date createdAt, String details, String deliveryAddress, 
-                    List<OrderItem> items, double total, Long deliveryEmployeeId, String deliveryEmployeeName,
+                    List<OrderItemDTO> items, double total, Long deliveryEmployeeId, String deliveryEmployeeName,
                     String paymentMethod, String paymentReceipt, String paymentStatus, 
                     Long paymentHandlerId, String paymentHandlerName) {
         this.id = id;
@@ -44,7 +43,7 @@ public class OrderDTO {
 
     // Backward compatibility constructor
     public OrderDTO(Long id, Long customerId, String status, Date createdAt, String details, String deliveryAddress, 
-                    List<OrderItem> items, double total, Long deliveryEmployeeId, String deliveryEmployeeName) {
+                    List<OrderItemDTO> items, double total, Long deliveryEmployeeId, String deliveryEmployeeName) {
         this(id, customerId, status, createdAt, details, deliveryAddress, items, total, 
              deliveryEmployeeId, deliveryEmployeeName, null, null, null, null, null);
     }
@@ -55,7 +54,7 @@ public class OrderDTO {
     public Date getCreatedAt() { return createdAt; }
     public String getDetails() { return details; }
     public String getDeliveryAddress() { return deliveryAddress; }
-    public List<OrderItem> getItems() { return items; }
+    public List<OrderItemDTO> getItems() { return items; }
     public double getTotal() { return total; }
     public Long getDeliveryEmployeeId() { return deliveryEmployeeId; }
     public String getDeliveryEmployeeName() { return deliveryEmployeeName; }
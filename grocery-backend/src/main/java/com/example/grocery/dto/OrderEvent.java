@@ -0,0 +1,22 @@
+package com.example.grocery.dto;
+
+import java.util.Date;
+
+/**
+ * OrderEvent
+ * Order state change pushed to employee dashboards over /api/events.
+ * Carries just enough for a dashboard to decide what to refetch.
+ *
+ * @param id Event id, sent as the SSE id so a reconnecting client can resume after it
+ * @param type e.g. order.assigned, order.delivered, payment.pending, payment.approved, or resync
+ *             when missed events can no longer be replayed
+ */
+public record OrderEvent(
+        String id,
+        String type,
+        Long orderId,
+        String status,
+        String paymentStatus,
+        Long deliveryEmployeeId,
+        Date at) {
+}
@@ -0,0 +1,14 @@
+package com.example.grocery.dto;
+
+/**
+ * OrderItemDTO
+ * Order line as returned to clients: product id and name, quantity and price.
+ * Replaces the OrderItem entity in order responses, which serialized the whole
+ * Product (including its image) for every line.
+ */
+public record OrderItemDTO(
+        Long productId,
+        String productName,
+        int quantity,
+        double price) {
+}
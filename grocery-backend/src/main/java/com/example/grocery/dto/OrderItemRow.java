@@ -0,0 +1,18 @@
+package com.example.grocery.dto;
+
+/**
+ * OrderItemRow
+ * Order line together with the id of its order, filled directly by
+ * OrderRepository.findItemRows so lines of many orders load in one query
+ */
+public record OrderItemRow(
+        Long orderId,
+        Long productId,
+        String productName,
+        int quantity,
+        double price) {
+
+    public OrderItemDTO toItem() {
+        return new OrderItemDTO(productId, productName, quantity, price);
+    }
+}
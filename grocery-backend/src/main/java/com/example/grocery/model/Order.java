@@ -4,13 +4,25 @@ import jakarta.persistence.*;
 import java.util.*;
 
 @Entity
-@Table(name = "orders")
+// Order listings read customer and both employees of every order; load them with the orders
+@NamedEntityGraph(name = "Order.summary", attributeNodes = {
+    @NamedAttributeNode("customer"),
+    @NamedAttributeNode("deliveryEmployee"),
+    @NamedAttributeNode("paymentHandler")
+})
+@Table(name = "orders", indexes = {
+    // Payment review queue: WHERE status = ? AND payment_method = ? ORDER BY created_at
+    @Index(name = "idx_orders_status_payment_created", columnList = "status, payment_method, created_at"),
+    // Customer order history: WHERE customer_id = ? ORDER BY created_at DESC, id DESC
+    @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at, id")
+})
 public class Order {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String status;
     @ManyToOne
     private User customer;
+    @Column(name = "created_at")
     private Date createdAt = new Date();
 
     // Assigned delivery employee
@@ -1,12 +1,48 @@
 package com.example.grocery.repo;
 
 import com.example.grocery.model.Beverages;
+import com.example.grocery.dto.CatalogListing;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BeveragesRepository extends JpaRepository<Beverages, Long> {
     List<Beverages> findByActiveTrue();
     long countByActiveTrue();
+
+    // Catalog listing without inline image data; short image URLs are kept
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(b.id, b.name, b.description, b.price, b.quantity, " +
+           "CASE WHEN b.image LIKE 'data:%' THEN NULL ELSE b.image END, " +
+           "CASE WHEN b.image IS NULL THEN false ELSE true END) FROM Beverages b WHERE b.active = true")
+    List<CatalogListing> findActiveListings();
+
+    // Same listing for a set of ids; one IN query for a batch lookup
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(b.id, b.name, b.description, b.price, b.quantity, " +
+           "CASE WHEN b.image LIKE 'data:%' THEN NULL ELSE b.image END, " +
+           "CASE WHEN b.image IS NULL THEN false ELSE true END) FROM Beverages b WHERE b.active = true AND b.id IN :ids")
+    List<CatalogListing> findActiveListingsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT b.image FROM Beverages b WHERE b.id = :id")
+    Optional<String> findImageById(Long id);
+
+    // Rows still holding a base64 data URL instead of an image store reference
+    @Query("SELECT b.id FROM Beverages b WHERE b.image LIKE 'data:%'")
+    List<Long> findIdsWithInlineImage();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Beverages b SET b.image = :image WHERE b.id = :id")
+    int updateImage(Long id, String image);
+
+    // Conditional decrement: updates nothing (returns 0) when stock is short, so concurrent orders cannot oversell
+    @Modifying
+    @Query("UPDATE Beverages b SET b.quantity = b.quantity - :quantity " +
+           "WHERE b.id = :id AND b.active = true AND b.quantity >= :quantity")
+    int reserveStock(Long id, int quantity);
 }
\ No newline at end of file
@@ -1,12 +1,48 @@
 package com.example.grocery.repo;
 
 import com.example.grocery.model.Dairy;
+import com.example.grocery.dto.CatalogListing;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DairyRepository extends JpaRepository<Dairy, Long> {
     List<Dairy> findByActiveTrue();
     long countByActiveTrue();
+
+    // Catalog listing without inline image data; short image URLs are kept
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(d.id, d.name, d.description, d.price, d.quantity, " +
+           "CASE WHEN d.image LIKE 'data:%' THEN NULL ELSE d.image END, " +
+           "CASE WHEN d.image IS NULL THEN false ELSE true END) FROM Dairy d WHERE d.active = true")
+    List<CatalogListing> findActiveListings();
+
+    // Same listing for a set of ids; one IN query for a batch lookup
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(d.id, d.name, d.description, d.price, d.quantity, " +
+           "CASE WHEN d.image LIKE 'data:%' THEN NULL ELSE d.image END, " +
+           "CASE WHEN d.image IS NULL THEN false ELSE true END) FROM Dairy d WHERE d.active = true AND d.id IN :ids")
+    List<CatalogListing> findActiveListingsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT d.image FROM Dairy d WHERE d.id = :id")
+    Optional<String> findImageById(Long id);
+
+    // Rows still holding a base64 data URL instead of an image store reference
+    @Query("SELECT d.id FROM Dairy d WHERE d.image LIKE 'data:%'")
+    List<Long> findIdsWithInlineImage();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Dairy d SET d.image = :image WHERE d.id = :id")
+    int updateImage(Long id, String image);
+
+    // Conditional decrement: updates nothing (returns 0) when stock is short, so concurrent orders cannot oversell
+    @Modifying
+    @Query("UPDATE Dairy d SET d.quantity = d.quantity - :quantity " +
+           "WHERE d.id = :id AND d.active = true AND d.quantity >= :quantity")
+    int reserveStock(Long id, int quantity);
 }
\ No newline at end of file
@@ -1,12 +1,48 @@
 package com.example.grocery.repo;
 
 import com.example.grocery.model.Fruits;
+import com.example.grocery.dto.CatalogListing;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FruitsRepository extends JpaRepository<Fruits, Long> {
     List<Fruits> findByActiveTrue();
     long countByActiveTrue();
+
+    // Catalog listing without inline image data; short image URLs are kept
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(f.id, f.name, f.description, f.price, f.quantity, " +
+           "CASE WHEN f.image LIKE 'data:%' THEN NULL ELSE f.image END, " +
+           "CASE WHEN f.image IS NULL THEN false ELSE true END) FROM Fruits f WHERE f.active = true")
+    List<CatalogListing> findActiveListings();
+
+    // Same listing for a set of ids; one IN query for a batch lookup
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(f.id, f.name, f.description, f.price, f.quantity, " +
+           "CASE WHEN f.image LIKE 'data:%' THEN NULL ELSE f.image END, " +
+           "CASE WHEN f.image IS NULL THEN false ELSE true END) FROM Fruits f WHERE f.active = true AND f.id IN :ids")
+    List<CatalogListing> findActiveListingsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT f.image FROM Fruits f WHERE f.id = :id")
+    Optional<String> findImageById(Long id);
+
+    // Rows still holding a base64 data URL instead of an image store reference
+    @Query("SELECT f.id FROM Fruits f WHERE f.image LIKE 'data:%'")
+    List<Long> findIdsWithInlineImage();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Fruits f SET f.image = :image WHERE f.id = :id")
+    int updateImage(Long id, String image);
+
+    // Conditional decrement: updates nothing (returns 0) when stock is short, so concurrent orders cannot oversell
+    @Modifying
+    @Query("UPDATE Fruits f SET f.quantity = f.quantity - :quantity " +
+           "WHERE f.id = :id AND f.active = true AND f.quantity >= :quantity")
+    int reserveStock(Long id, int quantity);
 }
\ No newline at end of file
@@ -1,12 +1,48 @@
 package com.example.grocery.repo;
 
 import com.example.grocery.model.Grains;
+import com.example.grocery.dto.CatalogListing;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GrainsRepository extends JpaRepository<Grains, Long> {
     List<Grains> findByActiveTrue();
     long countByActiveTrue();
+
+    // Catalog listing without inline image data; short image URLs are kept
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(g.id, g.name, g.description, g.price, g.quantity, " +
+           "CASE WHEN g.image LIKE 'data:%' THEN NULL ELSE g.image END, " +
+           "CASE WHEN g.image IS NULL THEN false ELSE true END) FROM Grains g WHERE g.active = true")
+    List<CatalogListing> findActiveListings();
+
+    // Same listing for a set of ids; one IN query for a batch lookup
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(g.id, g.name, g.description, g.price, g.quantity, " +
+           "CASE WHEN g.image LIKE 'data:%' THEN NULL ELSE g.image END, " +
+           "CASE WHEN g.image IS NULL THEN false ELSE true END) FROM Grains g WHERE g.active = true AND g.id IN :ids")
+    List<CatalogListing> findActiveListingsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT g.image FROM Grains g WHERE g.id = :id")
+    Optional<String> findImageById(Long id);
+
+    // Rows still holding a base64 data URL instead of an image store reference
+    @Query("SELECT g.id FROM Grains g WHERE g.image LIKE 'data:%'")
+    List<Long> findIdsWithInlineImage();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Grains g SET g.image = :image WHERE g.id = :id")
+    int updateImage(Long id, String image);
+
+    // Conditional decrement: updates nothing (returns 0) when stock is short, so concurrent orders cannot oversell
+    @Modifying
+    @Query("UPDATE Grains g SET g.quantity = g.quantity - :quantity " +
+           "WHERE g.id = :id AND g.active = true AND g.quantity >= :quantity")
+    int reserveStock(Long id, int quantity);
 }
\ No newline at end of file
@@ -1,12 +1,48 @@
 package com.example.grocery.repo;
 
 import com.example.grocery.model.Meat;
+import com.example.grocery.dto.CatalogListing;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MeatRepository extends JpaRepository<Meat, Long> {
     List<Meat> findByActiveTrue();
     long countByActiveTrue();
+
+    // Catalog listing without inline image data; short image URLs are kept
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(m.id, m.name, m.description, m.price, m.quantity, " +
+           "CASE WHEN m.image LIKE 'data:%' THEN NULL ELSE m.image END, " +
+           "CASE WHEN m.image IS NULL THEN false ELSE true END) FROM Meat m WHERE m.active = true")
+    List<CatalogListing> findActiveListings();
+
+    // Same listing for a set of ids; one IN query for a batch lookup
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(m.id, m.name, m.description, m.price, m.quantity, " +
+           "CASE WHEN m.image LIKE 'data:%' THEN NULL ELSE m.image END, " +
+           "CASE WHEN m.image IS NULL THEN false ELSE true END) FROM Meat m WHERE m.active = true AND m.id IN :ids")
+    List<CatalogListing> findActiveListingsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT m.image FROM Meat m WHERE m.id = :id")
+    Optional<String> findImageById(Long id);
+
+    // Rows still holding a base64 data URL instead of an image store reference
+    @Query("SELECT m.id FROM Meat m WHERE m.image LIKE 'data:%'")
+    List<Long> findIdsWithInlineImage();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Meat m SET m.image = :image WHERE m.id = :id")
+    int updateImage(Long id, String image);
+
+    // Conditional decrement: updates nothing (returns 0) when stock is short, so concurrent orders cannot oversell
+    @Modifying
+    @Query("UPDATE Meat m SET m.quantity = m.quantity - :quantity " +
+           "WHERE m.id = :id AND m.active = true AND m.quantity >= :quantity")
+    int reserveStock(Long id, int quantity);
 }
\ No newline at end of file
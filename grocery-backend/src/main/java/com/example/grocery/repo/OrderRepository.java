@@ -2,8 +2,15 @@ package com.example.grocery.repo;
 import com.example.grocery.model.Order;
 import com.example.grocery.model.User;
 import com.example.grocery.model.Employee;
+import com.example.grocery.dto.OrderItemRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * OrderRepository
@@ -18,8 +25,52 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @param customer The User entity
      * @return List of orders for the customer
      */
+    @EntityGraph("Order.summary")
     List<Order> findByCustomer(User customer);
     
+    /**
+     * First page of a customer's order history, newest first
+     * Served by the (customer_id, created_at, id) index. MySQL sorts NULL first ascending,
+     * so legacy orders without created_at come last, by id
+     * 
+     * @param customerId The customer's user ID
+     * @param pageable Page size (always page 0; later pages use findHistoryAfter)
+     * @return Up to one page of orders
+     */
+    @EntityGraph("Order.summary")
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findHistory(Long customerId, Pageable pageable);
+    
+    /**
+     * Next page of a customer's order history: orders older than the given position,
+     * then the legacy orders without created_at
+     * 
+     * @param customerId The customer's user ID
+     * @param createdAt Creation time of the last order of the previous page
+     * @param id ID of the last order of the previous page
+     * @param pageable Page size (always page 0)
+     * @return Up to one page of orders
+     */
+    @EntityGraph("Order.summary")
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) OR o.createdAt IS NULL) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findHistoryAfter(Long customerId, Date createdAt, Long id, Pageable pageable);
+    
+    /**
+     * Next page of a customer's order history when the previous page ended on a legacy
+     * order without created_at: the remaining legacy orders, by id
+     * 
+     * @param customerId The customer's user ID
+     * @param id ID of the last order of the previous page
+     * @param pageable Page size (always page 0)
+     * @return Up to one page of orders
+     */
+    @EntityGraph("Order.summary")
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId " +
+           "AND o.createdAt IS NULL AND o.id < :id ORDER BY o.id DESC")
+    List<Order> findUndatedHistoryAfter(Long customerId, Long id, Pageable pageable);
+    
     /**
      * Find all orders assigned to a specific delivery employee
      * Used by DeliveryEmployeeDashboard component
@@ -27,8 +78,28 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @param employee The Employee entity
      * @return List of orders assigned to the delivery employee
      */
+    @EntityGraph("Order.summary")
     List<Order> findByDeliveryEmployee(Employee employee);
     
+    /**
+     * Find all orders for the manager order list
+     * Customer, delivery employee and payment handler are loaded in the same query
+     * 
+     * @return All orders by id
+     */
+    @EntityGraph("Order.summary")
+    @Query("SELECT o FROM Order o ORDER BY o.id")
+    List<Order> findAllWithParticipants();
+    
+    /**
+     * Find one order with customer, delivery employee and payment handler in a single query
+     * 
+     * @param id The order ID
+     * @return The order, if it exists
+     */
+    @EntityGraph("Order.summary")
+    Optional<Order> findSummaryById(Long id);
+    
     /**
      * Find orders by status
      * @param status The order status
@@ -42,4 +113,47 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @return List of orders with specified payment status
      */
     List<Order> findByPaymentStatus(String paymentStatus);
+    
+    /**
+     * Count open (PLACED) orders per delivery employee in one query
+     * Used to seed DeliveryDispatcher
+     * 
+     * @return Rows of [delivery employee id, open order count]
+     */
+    @Query("SELECT o.deliveryEmployee.id, COUNT(o) FROM Order o " +
+           "WHERE o.status = 'PLACED' AND o.deliveryEmployee IS NOT NULL GROUP BY o.deliveryEmployee.id")
+    List<Object[]> countOpenOrdersByDeliveryEmployee();
+    
+    /**
+     * Units sold per product over all orders that were not cancelled
+     * Used to seed ProductPopularity
+     * 
+     * @return Rows of [product id, units sold]
+     */
+    @Query("SELECT i.product.id, SUM(i.quantity) FROM Order o JOIN o.items i " +
+           "WHERE o.status <> 'CANCELLED' AND i.product IS NOT NULL GROUP BY i.product.id")
+    List<Object[]> sumUnitsSoldByProduct();
+    
+    /**
+     * Find bank orders waiting for payment review, oldest first
+     * Served by the (status, payment_method, created_at) index; customer and
+     * employees are fetched in the same query
+     * 
+     * @return Orders in PAYMENT_REVIEW paid by bank transfer
+     */
+    @EntityGraph("Order.summary")
+    @Query("SELECT o FROM Order o " +
+           "WHERE o.status = 'PAYMENT_REVIEW' AND o.paymentMethod = 'bank' ORDER BY o.createdAt, o.id")
+    List<Order> findPendingBankPayments();
+    
+    /**
+     * Load the lines of several orders in one query, without Product entities
+     * The product name comes from a join on the product table, like OrderItem.getProduct()
+     * 
+     * @param orderIds Ids of the orders whose lines to load
+     * @return Lines ordered by order id, then line id
+     */
+    @Query("SELECT new com.example.grocery.dto.OrderItemRow(o.id, i.product.id, p.name, i.quantity, i.price) " +
+           "FROM Order o JOIN o.items i LEFT JOIN i.product p WHERE o.id IN :orderIds ORDER BY o.id, i.id")
+    List<OrderItemRow> findItemRows(Collection<Long> orderIds);
 }
@@ -1,8 +1,13 @@
 package com.example.grocery.repo;
 
 import com.example.grocery.model.Product;
+import com.example.grocery.dto.CatalogListing;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +16,34 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByActiveTrue();
     Optional<Product> findByIdAndActiveTrue(Long id);
     long countByActiveTrue();
+
+    // Catalog listing without inline image data; short image URLs are kept
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(p.id, p.name, p.description, p.price, p.quantity, " +
+           "CASE WHEN p.image LIKE 'data:%' THEN NULL ELSE p.image END, " +
+           "CASE WHEN p.image IS NULL THEN false ELSE true END) FROM Product p WHERE p.active = true")
+    List<CatalogListing> findActiveListings();
+
+    // Same listing for a set of ids; one IN query for a batch lookup
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(p.id, p.name, p.description, p.price, p.quantity, " +
+           "CASE WHEN p.image LIKE 'data:%' THEN NULL ELSE p.image END, " +
+           "CASE WHEN p.image IS NULL THEN false ELSE true END) FROM Product p WHERE p.active = true AND p.id IN :ids")
+    List<CatalogListing> findActiveListingsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.image FROM Product p WHERE p.id = :id")
+    Optional<String> findImageById(Long id);
+
+    // Rows still holding a base64 data URL instead of an image store reference
+    @Query("SELECT p.id FROM Product p WHERE p.image LIKE 'data:%'")
+    List<Long> findIdsWithInlineImage();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.image = :image WHERE p.id = :id")
+    int updateImage(Long id, String image);
+
+    // Conditional decrement: updates nothing (returns 0) when stock is short, so concurrent orders cannot oversell
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :quantity " +
+           "WHERE p.id = :id AND p.active = true AND p.quantity >= :quantity")
+    int reserveStock(Long id, int quantity);
 }
\ No newline at end of file
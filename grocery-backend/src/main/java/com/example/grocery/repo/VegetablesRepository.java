@@ -1,12 +1,48 @@
 package com.example.grocery.repo;
 
 import com.example.grocery.model.Vegetables;
+import com.example.grocery.dto.CatalogListing;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VegetablesRepository extends JpaRepository<Vegetables, Long> {
     List<Vegetables> findByActiveTrue();
     long countByActiveTrue();
+
+    // Catalog listing without inline image data; short image URLs are kept
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(v.id, v.name, v.description, v.price, v.quantity, " +
+           "CASE WHEN v.image LIKE 'data:%' THEN NULL ELSE v.image END, " +
+           "CASE WHEN v.image IS NULL THEN false ELSE true END) FROM Vegetables v WHERE v.active = true")
+    List<CatalogListing> findActiveListings();
+
+    // Same listing for a set of ids; one IN query for a batch lookup
+    @Query("SELECT new com.example.grocery.dto.CatalogListing(v.id, v.name, v.description, v.price, v.quantity, " +
+           "CASE WHEN v.image LIKE 'data:%' THEN NULL ELSE v.image END, " +
+           "CASE WHEN v.image IS NULL THEN false ELSE true END) FROM Vegetables v WHERE v.active = true AND v.id IN :ids")
+    List<CatalogListing> findActiveListingsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT v.image FROM Vegetables v WHERE v.id = :id")
+    Optional<String> findImageById(Long id);
+
+    // Rows still holding a base64 data URL instead of an image store reference
+    @Query("SELECT v.id FROM Vegetables v WHERE v.image LIKE 'data:%'")
+    List<Long> findIdsWithInlineImage();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Vegetables v SET v.image = :image WHERE v.id = :id")
+    int updateImage(Long id, String image);
+
+    // Conditional decrement: updates nothing (returns 0) when stock is short, so concurrent orders cannot oversell
+    @Modifying
+    @Query("UPDATE Vegetables v SET v.quantity = v.quantity - :quantity " +
+           "WHERE v.id = :id AND v.active = true AND v.quantity >= :quantity")
+    int reserveStock(Long id, int quantity);
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.example.grocery.service;
+
+/**
+ * CatalogCategory
+ * The eight category tables that make up the storefront catalog,
+ * in the order they are listed on the home page
+ */
+public enum CatalogCategory {
+    BAKERY(1, "bakery", "Bakery", "🥖", "/api/bakery", "Fresh bread, cakes, and baked goods"),
+    FRUITS(2, "fruits", "Fruits", "🍎", "/api/fruits", "Fresh seasonal fruits"),
+    DAIRY(3, "dairy", "Dairy", "🥛", "/api/dairy", "Milk, cheese, yogurt, and dairy products"),
+    MEAT(4, "meat", "Meat", "🥩", "/api/meat", "Fresh meat and poultry"),
+    BEVERAGES(5, "beverages", "Beverages", "🥤", "/api/beverages", "Soft drinks, juices, and beverages"),
+    GRAINS(6, "grains", "Grains", "🌾", "/api/grains", "Rice, wheat, and grain products"),
+    VEGETABLES(7, "vegetables", "Vegetables", "🥬", "/api/vegetables", "Fresh vegetables"),
+    PRODUCTS(8, "products", "Products", "🛒", "/api/products", "General grocery products");
+
+    private final int id;
+    private final String key;
+    private final String label;
+    private final String icon;
+    private final String endpoint;
+    private final String description;
+
+    CatalogCategory(int id, String key, String label, String icon, String endpoint, String description) {
+        this.id = id;
+        this.key = key;
+        this.label = label;
+        this.icon = icon;
+        this.endpoint = endpoint;
+        this.description = description;
+    }
+
+    public int getId() { return id; }
+    public String getKey() { return key; }
+    public String getLabel() { return label; }
+    public String getIcon() { return icon; }
+    public String getEndpoint() { return endpoint; }
+    public String getDescription() { return description; }
+
+    /**
+     * Resolve a category from its API key (bakery, fruits, ..., products)
+     * @param key The category name, case-insensitive
+     * @return The matching category, or null if the key is unknown
+     */
+    public static CatalogCategory fromKey(String key) {
+        if (key == null) return null;
+        String normalized = key.trim().toLowerCase();
+        for (CatalogCategory category : values()) {
+            if (category.key.equals(normalized)) return category;
+        }
+        return null;
+    }
+}
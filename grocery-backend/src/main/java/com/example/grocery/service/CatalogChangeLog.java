@@ -0,0 +1,94 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogChange;
+import com.example.grocery.dto.CatalogRow;
+
+import java.util.*;
+
+/**
+ * CatalogChangeLog
+ * Bounded, versioned log of product changes, derived by diffing each refreshed
+ * category against the snapshot it replaces. Lets clients that already hold the
+ * catalog at some version fetch only what changed since.
+ *
+ * Only the newest entries are kept. A client whose version is older than the
+ * log's horizon (entries were compacted away, or the server restarted) must resync.
+ */
+public final class CatalogChangeLog {
+
+    private final int maxEntries;
+    private final Deque<CatalogChange> entries = new ArrayDeque<>();
+
+    // Oldest version a client can hold and still be served deltas
+    private long horizon;
+
+    CatalogChangeLog(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Forget all changes; clients older than the given version must resync.
+     * Used when a snapshot is built without a previous one to diff against.
+     */
+    synchronized void reset(long version) {
+        entries.clear();
+        horizon = version;
+    }
+
+    /**
+     * Record the differences between a category's rows in the old and the new snapshot
+     */
+    synchronized void record(long version, CatalogCategory category, List<CatalogRow> before, List<CatalogRow> after) {
+        Map<Long, CatalogRow> previous = new HashMap<>();
+        for (CatalogRow row : before) previous.put(row.id(), row);
+
+        for (CatalogRow row : after) {
+            CatalogRow old = previous.remove(row.id());
+            if (old == null) {
+                append(new CatalogChange(version, "created", category.getKey(), row.id(), row));
+            } else if (!old.equals(row)) {
+                String type = sameExceptQuantity(old, row) ? "stock" : "updated";
+                append(new CatalogChange(version, type, category.getKey(), row.id(), row));
+            }
+        }
+        for (Long removedId : previous.keySet()) {
+            append(new CatalogChange(version, "removed", category.getKey(), removedId, null));
+        }
+    }
+
+    /**
+     * Changes after the given version up to the current one, at most one per product (its latest)
+     * @return The changes in version order, or empty if the client must resync
+     */
+    synchronized Optional<List<CatalogChange>> since(long version, long currentVersion) {
+        if (version < horizon || version > currentVersion) return Optional.empty();
+
+        Map<String, CatalogChange> latest = new LinkedHashMap<>();
+        for (Iterator<CatalogChange> it = entries.descendingIterator(); it.hasNext(); ) {
+            CatalogChange change = it.next();
+            if (change.version() <= version) break;
+            // Recorded just before its snapshot is published; not part of the caller's view yet
+            if (change.version() > currentVersion) continue;
+            latest.putIfAbsent(change.category() + ":" + change.id(), change);
+        }
+        List<CatalogChange> changes = new ArrayList<>(latest.values());
+        Collections.reverse(changes);
+        return Optional.of(changes);
+    }
+
+    private void append(CatalogChange change) {
+        entries.addLast(change);
+        while (entries.size() > maxEntries) {
+            // A client at the dropped entry's version already has it; anyone older must resync
+            horizon = Math.max(horizon, entries.removeFirst().version());
+        }
+    }
+
+    private static boolean sameExceptQuantity(CatalogRow a, CatalogRow b) {
+        return a.quantity() != b.quantity()
+                && a.price() == b.price()
+                && Objects.equals(a.name(), b.name())
+                && Objects.equals(a.description(), b.description())
+                && Objects.equals(a.image(), b.image());
+    }
+}
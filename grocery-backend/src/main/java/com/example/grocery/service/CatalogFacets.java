@@ -0,0 +1,126 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+
+import java.util.*;
+
+/**
+ * CatalogFacets
+ * Immutable per-facet bitsets over a snapshot's active products: one per category,
+ * one per price bucket and one for products in stock. Bit i stands for product i of
+ * {@link CatalogSnapshot#getAllProducts()}, so filtering is a few word-wise ANDs and ORs
+ * and a facet count is a cardinality.
+ *
+ * Only active products are in a snapshot, so there is no separate active facet.
+ */
+public final class CatalogFacets {
+
+    /** Price bucket keys, cheapest first; a bucket includes its lower bound (rupees) */
+    public static final List<String> PRICE_BUCKETS = List.of("0-100", "100-250", "250-500", "500-1000", "1000-2500", "2500+");
+
+    private static final double[] BUCKET_FLOORS = {0, 100, 250, 500, 1000, 2500};
+
+    private final int size;
+    private final BitSet[] byCategory;
+    private final BitSet[] byPrice;
+    private final BitSet inStock;
+
+    // Walks the categories in order, matching the order of CatalogSnapshot#getAllProducts()
+    CatalogFacets(Map<CatalogCategory, List<CatalogRow>> products) {
+        int total = 0;
+        for (List<CatalogRow> rows : products.values()) total += rows.size();
+        this.size = total;
+        this.byCategory = new BitSet[CatalogCategory.values().length];
+        this.byPrice = new BitSet[PRICE_BUCKETS.size()];
+        for (int c = 0; c < byCategory.length; c++) byCategory[c] = new BitSet(size);
+        for (int b = 0; b < byPrice.length; b++) byPrice[b] = new BitSet(size);
+        this.inStock = new BitSet(size);
+
+        int i = 0;
+        for (CatalogCategory category : CatalogCategory.values()) {
+            for (CatalogRow product : products.get(category)) {
+                byCategory[category.ordinal()].set(i);
+                byPrice[bucketOf(product.price())].set(i);
+                if (product.quantity() > 0) inStock.set(i);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Filter outcome: the matching products plus, per facet, how many products each value
+     * would match with the other facets' filters applied (so a selected value's siblings
+     * still show how many products selecting them would add)
+     */
+    public record Result(BitSet matches,
+                         Map<String, Integer> categoryCounts,
+                         Map<String, Integer> priceCounts,
+                         int inStockCount) {}
+
+    /**
+     * Apply the facet filters
+     * @param categories Categories to keep; empty keeps all
+     * @param priceBuckets Keys from {@link #PRICE_BUCKETS} to keep; empty keeps all
+     * @param inStockOnly Keep only products with quantity above 0
+     * @param candidates Products to start from (e.g. search hits), or null for all
+     * @throws IllegalArgumentException If a price bucket key is unknown
+     */
+    public Result filter(Set<CatalogCategory> categories, Set<String> priceBuckets, boolean inStockOnly, BitSet candidates) {
+        BitSet base = new BitSet(size);
+        if (candidates != null) base.or(candidates);
+        else base.set(0, size);
+
+        BitSet categoryMask = null;
+        if (!categories.isEmpty()) {
+            categoryMask = new BitSet(size);
+            for (CatalogCategory category : categories) categoryMask.or(byCategory[category.ordinal()]);
+        }
+        BitSet priceMask = null;
+        if (!priceBuckets.isEmpty()) {
+            priceMask = new BitSet(size);
+            for (String bucket : priceBuckets) {
+                int b = PRICE_BUCKETS.indexOf(bucket);
+                if (b < 0) throw new IllegalArgumentException("Unknown price range: " + bucket + ". Valid ranges: " + String.join(", ", PRICE_BUCKETS));
+                priceMask.or(byPrice[b]);
+            }
+        }
+        BitSet stockMask = inStockOnly ? inStock : null;
+
+        Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+        BitSet withoutCategory = intersect(base, priceMask, stockMask);
+        for (CatalogCategory category : CatalogCategory.values()) {
+            categoryCounts.put(category.getKey(), countBoth(withoutCategory, byCategory[category.ordinal()]));
+        }
+
+        Map<String, Integer> priceCounts = new LinkedHashMap<>();
+        BitSet withoutPrice = intersect(base, categoryMask, stockMask);
+        for (int b = 0; b < byPrice.length; b++) {
+            priceCounts.put(PRICE_BUCKETS.get(b), countBoth(withoutPrice, byPrice[b]));
+        }
+
+        int inStockCount = countBoth(intersect(base, categoryMask, priceMask), inStock);
+
+        return new Result(intersect(base, categoryMask, priceMask, stockMask), categoryCounts, priceCounts, inStockCount);
+    }
+
+    private static int bucketOf(double price) {
+        int b = BUCKET_FLOORS.length - 1;
+        while (b > 0 && price < BUCKET_FLOORS[b]) b--;
+        return b;
+    }
+
+    // Null masks do not filter
+    private static BitSet intersect(BitSet base, BitSet... masks) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) result.and(mask);
+        }
+        return result;
+    }
+
+    private static int countBoth(BitSet a, BitSet b) {
+        BitSet both = (BitSet) a.clone();
+        both.and(b);
+        return both.cardinality();
+    }
+}
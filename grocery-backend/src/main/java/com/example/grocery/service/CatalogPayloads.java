@@ -0,0 +1,66 @@
+package com.example.grocery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CatalogPayloads
+ * Serialized catalog responses, kept per catalog version as UTF-8 JSON bytes plus a
+ * gzip-compressed copy. A catalog version is read many times between writes, so JSON
+ * encoding and compression run once per version instead of once per request.
+ */
+@Service
+public class CatalogPayloads {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Latest payload per response key (e.g. "all-products", "category:bakery")
+    private final Map<String, Payload> payloads = new ConcurrentHashMap<>();
+
+    /**
+     * One response body, ready to write
+     * @param version The catalog version the body was built from
+     * @param json UTF-8 JSON
+     * @param gzip The same JSON, gzip-compressed
+     */
+    public record Payload(long version, byte[] json, byte[] gzip) {}
+
+    /**
+     * Encoded body for a response key at a catalog version, built from the body on first use.
+     * Concurrent first callers may each encode it; the copies are identical.
+     */
+    public Payload get(String key, long version, Supplier<?> body) {
+        Payload cached = payloads.get(key);
+        if (cached != null && cached.version() == version) return cached;
+
+        Payload fresh = encode(version, body.get());
+        // A reader still on an older snapshot must not evict a newer payload
+        payloads.merge(key, fresh, (old, candidate) -> candidate.version() >= old.version() ? candidate : old);
+        return fresh;
+    }
+
+    private Payload encode(long version, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            // Compressed once per version, so spend the CPU on the smallest output
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+                gzip.write(json);
+            }
+            return new Payload(version, json, compressed.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode catalog response", e);
+        }
+    }
+}
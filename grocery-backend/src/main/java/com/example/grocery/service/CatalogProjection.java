@@ -0,0 +1,52 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogListing;
+import com.example.grocery.dto.CatalogRow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CatalogProjection
+ * Turns the listing projections of the category repositories into CatalogRow objects.
+ * The listing queries fill CatalogListing through a constructor expression, so no entity is
+ * loaded and no accessor is looked up: projecting a product is plain field reads into one
+ * typed row, with no reflection and no per-item map.
+ */
+public final class CatalogProjection {
+
+    private CatalogProjection() {}
+
+    /**
+     * Row of one listing
+     */
+    public static CatalogRow toRow(CatalogCategory category, CatalogListing listing) {
+        return new CatalogRow(
+                listing.id(),
+                listing.name(),
+                listing.price() != null ? listing.price() : 0,
+                listing.description(),
+                listing.quantity() != null ? listing.quantity() : 0,
+                image(category, listing),
+                category.getKey(),
+                category.getIcon());
+    }
+
+    /**
+     * Rows of a category's listings, in the same order, as an unmodifiable list
+     */
+    public static List<CatalogRow> toRows(CatalogCategory category, List<CatalogListing> listings) {
+        List<CatalogRow> rows = new ArrayList<>(listings.size());
+        for (CatalogListing listing : listings) {
+            rows.add(toRow(category, listing));
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    // Listing queries leave inline image data in the database; such rows link to /api/images instead
+    private static String image(CatalogCategory category, CatalogListing listing) {
+        if (listing.image() != null) return listing.image();
+        return Boolean.TRUE.equals(listing.hasImage()) ? ProductImageService.imageUrl(category, listing.id()) : null;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * CatalogQueryService
+ * Filtered, paged catalog listings with facet counts, answered from a catalog snapshot:
+ * search hits and facet filters are combined as bitsets, then only the requested page
+ * is materialized. Clients fetch the page they show instead of the whole catalog.
+ *
+ * Price, name and newest orders walk the snapshot's precomputed permutations; relevance
+ * and popularity keep only the best (page + 1) * size matches in a bounded heap.
+ * Products carry no creation time, so newest is only defined within one category.
+ */
+@Service
+public class CatalogQueryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Value("${catalog.query.page-size:24}")
+    private int defaultPageSize;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ProductPopularity productPopularity;
+
+    /**
+     * Listing orders
+     */
+    public enum Sort {
+        PRICE("price"),
+        NAME("name"),
+        NEWEST("newest"),
+        POPULARITY("popularity");
+
+        private final String key;
+
+        Sort(String key) { this.key = key; }
+
+        public String getKey() { return key; }
+
+        /**
+         * Order for a request parameter value, case-insensitive
+         * @return The order, or null if the value names none
+         */
+        public static Sort fromKey(String key) {
+            if (key == null) return null;
+            String normalized = key.trim().toLowerCase();
+            for (Sort sort : values()) {
+                if (sort.key.equals(normalized)) return sort;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * What to list
+     * @param categories Categories to keep; empty keeps all
+     * @param priceBuckets Price ranges to keep, keys of {@link CatalogFacets#PRICE_BUCKETS}; empty keeps all
+     * @param inStockOnly Keep only products in stock
+     * @param text Search text, or null/blank to list without searching
+     * @param sort Listing order; null for relevance when searching, catalog order otherwise.
+     *             {@link Sort#NEWEST} needs exactly one category
+     * @param page Zero-based page number
+     * @param size Page size; the configured default when null, capped at 100
+     */
+    public record Query(Set<CatalogCategory> categories, Set<String> priceBuckets, boolean inStockOnly,
+                        String text, Sort sort, int page, Integer size) {}
+
+    /**
+     * One page of a listing
+     * @param products Products of this page
+     * @param total Products matching the query across all pages
+     * @param categoryCounts Matches per category, ignoring the category filter
+     * @param priceCounts Matches per price range, ignoring the price filter
+     * @param inStockCount Matches in stock, ignoring the in-stock filter
+     */
+    public record Page(List<CatalogRow> products, int total, int page, int size,
+                       Map<String, Integer> categoryCounts, Map<String, Integer> priceCounts, int inStockCount) {
+        public boolean hasMore() { return (long) (page + 1) * size < total; }
+    }
+
+    /**
+     * Run a query against a snapshot
+     * Without a sort, search results keep their relevance order and plain listings keep catalog order.
+     * @throws IllegalArgumentException If the page is negative, a price range is unknown or
+     *                                  newest is asked for across categories
+     */
+    public Page list(CatalogSnapshot snapshot, Query query) {
+        if (query.page() < 0) throw new IllegalArgumentException("Page must not be negative");
+        if (query.sort() == Sort.NEWEST && query.categories().size() != 1) {
+            throw new IllegalArgumentException("sort=newest needs a single category");
+        }
+        int size = query.size() == null || query.size() <= 0 ? defaultPageSize : Math.min(query.size(), MAX_PAGE_SIZE);
+
+        boolean searching = query.text() != null && !query.text().isBlank();
+        int[] scores = searching ? catalogService.searchScores(snapshot, query.text()) : null;
+        BitSet candidates = null;
+        if (scores != null) {
+            candidates = new BitSet(scores.length);
+            for (int doc = 0; doc < scores.length; doc++) {
+                if (scores[doc] >= 0) candidates.set(doc);
+            }
+        }
+
+        CatalogFacets.Result result = snapshot.getFacets()
+                .filter(query.categories(), query.priceBuckets(), query.inStockOnly(), candidates);
+        BitSet matches = result.matches();
+        int total = matches.cardinality();
+        long from = (long) query.page() * size;
+
+        List<CatalogRow> all = snapshot.getAllProducts();
+        List<CatalogRow> products = new ArrayList<>();
+        if (from < total) {
+            int end = (int) Math.min(from + size, total);
+            for (int doc : pageOf(snapshot, query.sort(), scores, matches, (int) from, end)) {
+                products.add(all.get(doc));
+            }
+        }
+
+        return new Page(products, total, query.page(), size,
+                result.categoryCounts(), result.priceCounts(), result.inStockCount());
+    }
+
+    // Positions of the matches ranked from..end-1 in the requested order
+    private List<Integer> pageOf(CatalogSnapshot snapshot, Sort sort, int[] scores, BitSet matches, int from, int end) {
+        if (sort == Sort.POPULARITY) {
+            List<CatalogRow> all = snapshot.getAllProducts();
+            long[] units = new long[all.size()];
+            matches.stream().forEach(doc -> units[doc] = productPopularity.unitsSold(all.get(doc)));
+            return topK(matches, end, (a, b) -> units[a] != units[b] ? Long.compare(units[b], units[a]) : Integer.compare(a, b))
+                    .subList(from, end);
+        }
+        if (sort == null && scores != null) {
+            return topK(matches, end, (a, b) -> scores[a] != scores[b] ? Integer.compare(scores[b], scores[a]) : Integer.compare(a, b))
+                    .subList(from, end);
+        }
+
+        List<Integer> page = new ArrayList<>(end - from);
+        if (sort == null) {
+            // Skip to the page's first match without materializing the ones before it
+            int doc = matches.nextSetBit(0);
+            for (int skipped = 0; skipped < from; skipped++) doc = matches.nextSetBit(doc + 1);
+            for (; doc >= 0 && page.size() < end - from; doc = matches.nextSetBit(doc + 1)) page.add(doc);
+            return page;
+        }
+
+        CatalogSortOrders orders = snapshot.getSortOrders();
+        int[] permutation = switch (sort) {
+            case PRICE -> orders.byPrice();
+            case NAME -> orders.byName();
+            default -> orders.newestFirst();
+        };
+        int seen = 0;
+        for (int k = 0; k < permutation.length && seen < end; k++) {
+            if (!matches.get(permutation[k])) continue;
+            if (seen++ >= from) page.add(permutation[k]);
+        }
+        return page;
+    }
+
+    /**
+     * The k best matches in order, keeping at most k + 1 in memory at a time
+     */
+    private static List<Integer> topK(BitSet matches, int k, Comparator<Integer> order) {
+        // Head is the worst of the best k so far
+        PriorityQueue<Integer> best = new PriorityQueue<>(k + 1, order.reversed());
+        matches.stream().forEach(doc -> {
+            best.add(doc);
+            if (best.size() > k) best.poll();
+        });
+        List<Integer> ranked = new ArrayList<>(best);
+        ranked.sort(order);
+        return ranked;
+    }
+}
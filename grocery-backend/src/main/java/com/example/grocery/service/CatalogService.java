@@ -0,0 +1,295 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogChange;
+import com.example.grocery.dto.CatalogListing;
+import com.example.grocery.dto.CatalogRow;
+import com.example.grocery.repo.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CatalogService
+ * Holds the in-memory catalog snapshot served by /api/categories/all-products.
+ * Reads are a single pointer dereference; every product write refreshes the
+ * affected category and swaps in a new snapshot atomically.
+ */
+@Service
+public class CatalogService {
+
+    @Autowired
+    private BakeryRepository bakeryRepo;
+
+    @Autowired
+    private FruitsRepository fruitsRepo;
+
+    @Autowired
+    private DairyRepository dairyRepo;
+
+    @Autowired
+    private MeatRepository meatRepo;
+
+    @Autowired
+    private BeveragesRepository beveragesRepo;
+
+    @Autowired
+    private GrainsRepository grainsRepo;
+
+    @Autowired
+    private VegetablesRepository vegetablesRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private CategoryFanOut categoryFanOut;
+
+    @Value("${catalog.search.max-edits:2}")
+    private int searchMaxEdits;
+
+    // Product changes kept for /api/categories/changes; older clients resync
+    private static final int CHANGE_LOG_SIZE = 5000;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+
+    private final CatalogChangeLog changeLog = new CatalogChangeLog(CHANGE_LOG_SIZE);
+
+    // Last version handed out; keeps versions increasing across full reloads.
+    // Starts at the boot time in milliseconds so versions also keep increasing across restarts.
+    private long lastVersion = System.currentTimeMillis();
+
+    /**
+     * Current catalog snapshot, loading it on first use
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : load();
+    }
+
+    /**
+     * Product changes after a catalog version, as of the current snapshot
+     * @param version Version of the catalog the client holds
+     * @return The changes, or empty if the client must reload the whole catalog
+     *         (its version is older than the change log or unknown to this server)
+     */
+    public Optional<List<CatalogChange>> changesSince(CatalogSnapshot snapshot, long version) {
+        return changeLog.since(version, snapshot.getVersion());
+    }
+
+    /**
+     * Search active products in the current snapshot, correcting query words that match
+     * nothing by up to {@code catalog.search.max-edits} edits
+     */
+    public List<CatalogRow> search(String query) {
+        return snapshot().getSearchIndex().search(query, searchMaxEdits);
+    }
+
+    /**
+     * Search scores of every product of a snapshot, with the same typo tolerance as {@link #search(String)}
+     * @return Scores in {@link CatalogSnapshot#getAllProducts()} order; -1 where a product does not match
+     */
+    public int[] searchScores(CatalogSnapshot snapshot, String query) {
+        return snapshot.getSearchIndex().score(query, searchMaxEdits);
+    }
+
+    /**
+     * Category that owns an active product id, without touching the database
+     * @return The category, or null if no active product has this id
+     */
+    public CatalogCategory locate(Long productId) {
+        return snapshot().getDirectory().categoryOf(productId);
+    }
+
+    /**
+     * Reference to a product in a batch lookup
+     * @param category The owning category, or null to use whichever category has an active product with the id
+     */
+    public record ProductRef(CatalogCategory category, Long id) {}
+
+    /**
+     * Look up several active products at once.
+     * Answered from the snapshot when the catalog is loaded; otherwise with at most
+     * one IN query per category table, without loading the whole catalog.
+     * @return Found products by reference, in request order; unknown or inactive products are left out
+     */
+    public Map<ProductRef, CatalogRow> findProducts(Collection<ProductRef> refs) {
+        Map<ProductRef, CatalogRow> found = new LinkedHashMap<>();
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            ProductDirectory directory = snapshot.getDirectory();
+            for (ProductRef ref : refs) {
+                CatalogCategory category = ref.category() != null ? ref.category() : directory.categoryOf(ref.id());
+                CatalogRow row = category != null ? directory.find(category, ref.id()) : null;
+                if (row != null) found.put(ref, row);
+            }
+            return found;
+        }
+
+        // Unqualified ids have to be looked for in every table
+        Map<CatalogCategory, Set<Long>> idsByCategory = new EnumMap<>(CatalogCategory.class);
+        for (ProductRef ref : refs) {
+            if (ref.id() == null) continue;
+            if (ref.category() != null) {
+                idsByCategory.computeIfAbsent(ref.category(), c -> new HashSet<>()).add(ref.id());
+            } else {
+                for (CatalogCategory category : CatalogCategory.values()) {
+                    idsByCategory.computeIfAbsent(category, c -> new HashSet<>()).add(ref.id());
+                }
+            }
+        }
+        Map<CatalogCategory, Map<Long, CatalogRow>> loaded = new EnumMap<>(CatalogCategory.class);
+        idsByCategory.forEach((category, ids) -> {
+            Map<Long, CatalogRow> rows = new HashMap<>();
+            for (CatalogRow row : CatalogProjection.toRows(category, listingsByIds(category, ids))) {
+                rows.put(row.id(), row);
+            }
+            loaded.put(category, rows);
+        });
+
+        for (ProductRef ref : refs) {
+            CatalogRow row = null;
+            if (ref.category() != null) {
+                row = loaded.getOrDefault(ref.category(), Map.of()).get(ref.id());
+            } else {
+                // Same rule as the directory: first category in enum order wins
+                for (CatalogCategory category : CatalogCategory.values()) {
+                    row = loaded.getOrDefault(category, Map.of()).get(ref.id());
+                    if (row != null) break;
+                }
+            }
+            if (row != null) found.put(ref, row);
+        }
+        return found;
+    }
+
+    /**
+     * Reload every category from the database and swap in the result.
+     * The eight categories are queried concurrently; the previous snapshot stays in place if any fails.
+     */
+    public synchronized CatalogSnapshot reload() {
+        Map<CatalogCategory, LoadedCategory> loaded =
+                categoryFanOut.forEachCategory(category -> new LoadedCategory(loadCategory(category), countCategory(category)));
+        Map<CatalogCategory, List<CatalogRow>> products = new EnumMap<>(CatalogCategory.class);
+        Map<CatalogCategory, Long> totals = new EnumMap<>(CatalogCategory.class);
+        loaded.forEach((category, result) -> {
+            products.put(category, result.rows());
+            totals.put(category, result.total());
+        });
+        CatalogSnapshot next = new CatalogSnapshot(++lastVersion, products, totals);
+        // Nothing to diff against: clients holding an older version start over
+        changeLog.reset(next.getVersion());
+        current.set(next);
+        System.out.println("[CatalogService] Loaded catalog v" + next.getVersion() +
+                " with " + next.getAllProducts().size() + " active products");
+        return next;
+    }
+
+    /**
+     * Reload a single category and swap in a new snapshot.
+     * Does nothing until the catalog has been loaded once.
+     * Never fails the caller's write: on error the snapshot is dropped and rebuilt on next read.
+     */
+    public synchronized void refresh(CatalogCategory category) {
+        CatalogSnapshot previous = current.get();
+        if (previous == null || category == null) return;
+        try {
+            List<CatalogRow> rows = loadCategory(category);
+            long total = countCategory(category);
+            long version = ++lastVersion;
+            // Logged before the snapshot is published; readers of the previous snapshot do not see it yet
+            changeLog.record(version, category, previous.getProducts(category), rows);
+            current.set(previous.withCategory(category, rows, total, version));
+        } catch (RuntimeException e) {
+            System.err.println("[CatalogService] Failed to refresh " + category.getKey() + ": " + e.getMessage());
+            current.set(null);
+        }
+    }
+
+    /**
+     * Refresh a category once the surrounding transaction commits,
+     * so a rolled-back write never reaches the snapshot.
+     * Refreshes immediately when no transaction is active.
+     */
+    public void refreshAfterCommit(CatalogCategory category) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(category);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(category);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            load();
+        } catch (Exception e) {
+            // Not fatal: the first request will retry the load
+            System.err.println("[CatalogService] Catalog warm-up failed: " + e.getMessage());
+        }
+    }
+
+    private synchronized CatalogSnapshot load() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    private record LoadedCategory(List<CatalogRow> rows, long total) {}
+
+    private List<CatalogRow> loadCategory(CatalogCategory category) {
+        // Listing queries leave inline image data in the database; such rows link to /api/images instead
+        List<CatalogListing> listings;
+        switch (category) {
+            case BAKERY: listings = bakeryRepo.findActiveListings(); break;
+            case FRUITS: listings = fruitsRepo.findActiveListings(); break;
+            case DAIRY: listings = dairyRepo.findActiveListings(); break;
+            case MEAT: listings = meatRepo.findActiveListings(); break;
+            case BEVERAGES: listings = beveragesRepo.findActiveListings(); break;
+            case GRAINS: listings = grainsRepo.findActiveListings(); break;
+            case VEGETABLES: listings = vegetablesRepo.findActiveListings(); break;
+            case PRODUCTS: listings = productRepo.findActiveListings(); break;
+            default: throw new IllegalArgumentException("Unknown category: " + category);
+        }
+        return CatalogProjection.toRows(category, listings);
+    }
+
+    private List<CatalogListing> listingsByIds(CatalogCategory category, Collection<Long> ids) {
+        switch (category) {
+            case BAKERY: return bakeryRepo.findActiveListingsByIdIn(ids);
+            case FRUITS: return fruitsRepo.findActiveListingsByIdIn(ids);
+            case DAIRY: return dairyRepo.findActiveListingsByIdIn(ids);
+            case MEAT: return meatRepo.findActiveListingsByIdIn(ids);
+            case BEVERAGES: return beveragesRepo.findActiveListingsByIdIn(ids);
+            case GRAINS: return grainsRepo.findActiveListingsByIdIn(ids);
+            case VEGETABLES: return vegetablesRepo.findActiveListingsByIdIn(ids);
+            case PRODUCTS: return productRepo.findActiveListingsByIdIn(ids);
+            default: throw new IllegalArgumentException("Unknown category: " + category);
+        }
+    }
+
+    // Rows including inactive products; counted once per write instead of on every stats request
+    private long countCategory(CatalogCategory category) {
+        switch (category) {
+            case BAKERY: return bakeryRepo.count();
+            case FRUITS: return fruitsRepo.count();
+            case DAIRY: return dairyRepo.count();
+            case MEAT: return meatRepo.count();
+            case BEVERAGES: return beveragesRepo.count();
+            case GRAINS: return grainsRepo.count();
+            case VEGETABLES: return vegetablesRepo.count();
+            case PRODUCTS: return productRepo.count();
+            default: throw new IllegalArgumentException("Unknown category: " + category);
+        }
+    }
+}
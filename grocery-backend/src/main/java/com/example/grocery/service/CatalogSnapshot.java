@@ -0,0 +1,180 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * CatalogSnapshot
+ * Immutable, versioned view of every active product in the catalog.
+ * A new snapshot is built whenever a category changes; readers never see a partial update.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    // Version at which each category last changed; backs the per-category ETags
+    private final Map<CatalogCategory, Long> categoryVersions;
+    private final Map<CatalogCategory, List<CatalogRow>> products;
+    private final List<CatalogRow> allProducts;
+    // Rows per category table including inactive ones, counted when the category was loaded
+    private final Map<CatalogCategory, Long> totals;
+
+    // Built on first search against this snapshot
+    private volatile ProductSearchIndex searchIndex;
+
+    // Built on first id lookup against this snapshot
+    private volatile ProductDirectory directory;
+
+    // Built on first filtered listing against this snapshot
+    private volatile CatalogFacets facets;
+
+    // Built on first sorted listing against this snapshot
+    private volatile CatalogSortOrders sortOrders;
+
+    // Per-category typeahead lookups, by category ordinal; built on first use and
+    // handed on to the next snapshot for every category that did not change
+    private final AtomicReferenceArray<PrefixSuggester> suggesters;
+
+    CatalogSnapshot(long version, Map<CatalogCategory, List<CatalogRow>> products, Map<CatalogCategory, Long> totals) {
+        this(version, products, totals, null, new AtomicReferenceArray<>(CatalogCategory.values().length));
+    }
+
+    private CatalogSnapshot(long version, Map<CatalogCategory, List<CatalogRow>> products,
+                            Map<CatalogCategory, Long> totals, Map<CatalogCategory, Long> categoryVersions,
+                            AtomicReferenceArray<PrefixSuggester> suggesters) {
+        this.version = version;
+        this.suggesters = suggesters;
+        EnumMap<CatalogCategory, Long> versions = new EnumMap<>(CatalogCategory.class);
+        for (CatalogCategory category : CatalogCategory.values()) {
+            versions.put(category, categoryVersions != null ? categoryVersions.getOrDefault(category, version) : version);
+        }
+        this.categoryVersions = Collections.unmodifiableMap(versions);
+        EnumMap<CatalogCategory, List<CatalogRow>> copy = new EnumMap<>(CatalogCategory.class);
+        List<CatalogRow> all = new ArrayList<>();
+        for (CatalogCategory category : CatalogCategory.values()) {
+            List<CatalogRow> rows = products.getOrDefault(category, List.of());
+            copy.put(category, rows);
+            all.addAll(rows);
+        }
+        this.products = Collections.unmodifiableMap(copy);
+        this.allProducts = Collections.unmodifiableList(all);
+        EnumMap<CatalogCategory, Long> totalsCopy = new EnumMap<>(CatalogCategory.class);
+        for (CatalogCategory category : CatalogCategory.values()) {
+            // Never report fewer rows than there are active products
+            totalsCopy.put(category, Math.max(totals.getOrDefault(category, 0L), copy.get(category).size()));
+        }
+        this.totals = Collections.unmodifiableMap(totalsCopy);
+    }
+
+    public long getVersion() { return version; }
+
+    /** Version at which a category last changed; unchanged while other categories are written */
+    public long getVersion(CatalogCategory category) {
+        return categoryVersions.get(category);
+    }
+
+    /** Active products of a single category, in table order */
+    public List<CatalogRow> getProducts(CatalogCategory category) {
+        return products.get(category);
+    }
+
+    /** Number of active products in a category */
+    public int getActiveCount(CatalogCategory category) {
+        return products.get(category).size();
+    }
+
+    /** Number of products in a category table, active or not */
+    public long getTotalCount(CatalogCategory category) {
+        return totals.get(category);
+    }
+
+    /** Active products of all categories combined, in category order */
+    public List<CatalogRow> getAllProducts() {
+        return allProducts;
+    }
+
+    /**
+     * Search index over this snapshot's products.
+     * Concurrent first callers may each build one; the index is immutable, so either copy is fine.
+     */
+    public ProductSearchIndex getSearchIndex() {
+        ProductSearchIndex index = searchIndex;
+        if (index == null) {
+            index = new ProductSearchIndex(allProducts);
+            searchIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Id -> category directory over this snapshot's products, built like the search index
+     */
+    public ProductDirectory getDirectory() {
+        ProductDirectory dir = directory;
+        if (dir == null) {
+            dir = new ProductDirectory(products);
+            directory = dir;
+        }
+        return dir;
+    }
+
+    /**
+     * Facet bitsets over this snapshot's products, built like the search index
+     */
+    public CatalogFacets getFacets() {
+        CatalogFacets built = facets;
+        if (built == null) {
+            built = new CatalogFacets(products);
+            facets = built;
+        }
+        return built;
+    }
+
+    /**
+     * Precomputed sort orders of this snapshot's products, built like the search index
+     */
+    public CatalogSortOrders getSortOrders() {
+        CatalogSortOrders built = sortOrders;
+        if (built == null) {
+            built = new CatalogSortOrders(allProducts);
+            sortOrders = built;
+        }
+        return built;
+    }
+
+    /**
+     * Typeahead lookup over one category's product names, built like the search index
+     */
+    public PrefixSuggester getSuggester(CatalogCategory category) {
+        PrefixSuggester suggester = suggesters.get(category.ordinal());
+        if (suggester == null) {
+            suggester = new PrefixSuggester(products.get(category));
+            suggesters.set(category.ordinal(), suggester);
+        }
+        return suggester;
+    }
+
+    /**
+     * Copy of this snapshot with one category replaced
+     * @param category The category that changed
+     * @param rows The freshly loaded rows for that category
+     * @param total The category's row count including inactive products
+     * @param version The version number of the new snapshot
+     * @return A new snapshot sharing every other category with this one
+     */
+    CatalogSnapshot withCategory(CatalogCategory category, List<CatalogRow> rows, long total, long version) {
+        EnumMap<CatalogCategory, List<CatalogRow>> next = new EnumMap<>(products);
+        next.put(category, rows);
+        EnumMap<CatalogCategory, Long> nextTotals = new EnumMap<>(totals);
+        nextTotals.put(category, total);
+        EnumMap<CatalogCategory, Long> versions = new EnumMap<>(categoryVersions);
+        versions.put(category, version);
+        // Suggesters of untouched categories are reused; the changed one is rebuilt on next use
+        AtomicReferenceArray<PrefixSuggester> nextSuggesters = new AtomicReferenceArray<>(CatalogCategory.values().length);
+        for (CatalogCategory other : CatalogCategory.values()) {
+            if (other != category) nextSuggesters.set(other.ordinal(), suggesters.get(other.ordinal()));
+        }
+        return new CatalogSnapshot(version, next, nextTotals, versions, nextSuggesters);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+
+import java.util.*;
+
+/**
+ * CatalogSortOrders
+ * Precomputed sort orders of a snapshot's active products, as permutations of positions in
+ * {@link CatalogSnapshot#getAllProducts()}. A sorted listing walks the permutation and keeps
+ * the positions its filter matches, so no request ever sorts the catalog.
+ *
+ * Ties fall back to catalog order, so every order is stable across requests.
+ */
+public final class CatalogSortOrders {
+
+    private final int[] byPrice;
+    private final int[] byName;
+    private final int[] newestFirst;
+
+    CatalogSortOrders(List<CatalogRow> products) {
+        this.byPrice = permutation(products, Comparator.comparingDouble(CatalogRow::price));
+        this.byName = permutation(products, Comparator.comparing(CatalogRow::name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        // Ids are assigned in insertion order within each table, so a higher id is a newer product.
+        // Ids of different tables are unrelated: only the order within one category means anything
+        this.newestFirst = permutation(products, Comparator.comparing(CatalogRow::id, Comparator.nullsLast(Comparator.reverseOrder())));
+    }
+
+    /** Cheapest first */
+    public int[] byPrice() { return byPrice; }
+
+    /** Name A-Z, ignoring case */
+    public int[] byName() { return byName; }
+
+    /** Most recently added first, meaningful only when filtered to a single category */
+    public int[] newestFirst() { return newestFirst; }
+
+    private static int[] permutation(List<CatalogRow> products, Comparator<CatalogRow> order) {
+        Integer[] positions = new Integer[products.size()];
+        for (int i = 0; i < positions.length; i++) positions[i] = i;
+        // Stable sort: equal products keep catalog order
+        Arrays.sort(positions, (a, b) -> order.compare(products.get(a), products.get(b)));
+        int[] permutation = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) permutation[i] = positions[i];
+        return permutation;
+    }
+}
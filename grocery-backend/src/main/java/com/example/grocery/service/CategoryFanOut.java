@@ -0,0 +1,71 @@
+package com.example.grocery.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * CategoryFanOut
+ * Runs one query per catalog category concurrently on the bounded catalog query pool,
+ * so loading all eight tables takes about as long as the slowest one instead of the sum.
+ *
+ * All queries share one deadline. When it passes, or when any query fails, the remaining
+ * queries are cancelled and the whole call fails: callers get every category or none.
+ */
+@Service
+public class CategoryFanOut {
+
+    @Autowired
+    @Qualifier("catalogQueryExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    @Value("${catalog.fanout.timeout-ms:15000}")
+    private long timeoutMs;
+
+    /**
+     * Run the query for every category and collect the results
+     * @param query Called once per category, on a pool thread, outside any transaction
+     * @return Category -> result, in category order
+     * @throws IllegalStateException If a query fails or the deadline passes
+     */
+    public <T> Map<CatalogCategory, T> forEachCategory(Function<CatalogCategory, T> query) {
+        // Completion order, so the first failure is seen as soon as it happens
+        CompletionService<Result<T>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Result<T>>> futures = new ArrayList<>();
+        try {
+            for (CatalogCategory category : CatalogCategory.values()) {
+                futures.add(completion.submit(() -> new Result<>(category, query.apply(category))));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            Map<CatalogCategory, T> results = new EnumMap<>(CatalogCategory.class);
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Result<T>> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new IllegalStateException("Category queries did not finish within " + timeoutMs + " ms");
+                }
+                Result<T> result = done.get();
+                results.put(result.category(), result.value());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Category query failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for category queries");
+        } finally {
+            // No-op for finished queries; stops the rest after a failure or timeout
+            for (Future<Result<T>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private record Result<T>(CatalogCategory category, T value) {}
+}
@@ -0,0 +1,188 @@
+package com.example.grocery.service;
+
+import com.example.grocery.model.Employee;
+import com.example.grocery.model.Order;
+import com.example.grocery.repo.EmployeeRepository;
+import com.example.grocery.repo.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DeliveryDispatcher
+ * Assigns orders to the delivery employee with the fewest open (PLACED) orders.
+ * Open-order counts are kept in memory: seeded with one GROUP BY query and then
+ * updated as orders are assigned, delivered, edited or deleted, so an assignment
+ * no longer loads the whole order history.
+ *
+ * The delivery roster is cached too and reloaded when employees are added, edited or
+ * removed, so an assignment does not touch the database at all. Counts only change
+ * under this object's lock, so an update can never be lost to a concurrent reseed.
+ */
+@Service
+public class DeliveryDispatcher {
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private EmployeeRepository employeeRepo;
+
+    // Open orders per delivery employee id; employees without open orders may be missing
+    private final Map<Long, AtomicInteger> openOrders = new ConcurrentHashMap<>();
+
+    // Delivery employees in id order; replaced whole on reload
+    private volatile List<Employee> roster = Collections.emptyList();
+
+    private volatile boolean seeded;
+
+    /**
+     * Delivery employee an order counts against, or null if the order is not open
+     */
+    public static Long openAssignee(Order order) {
+        if (order == null || order.getDeliveryEmployee() == null) return null;
+        return "PLACED".equalsIgnoreCase(order.getStatus()) ? order.getDeliveryEmployee().getId() : null;
+    }
+
+    /**
+     * Reload the delivery roster and the open-order counts from the database
+     */
+    public synchronized void seed() {
+        Map<Long, AtomicInteger> counts = new HashMap<>();
+        for (Object[] row : orderRepo.countOpenOrdersByDeliveryEmployee()) {
+            counts.put((Long) row[0], new AtomicInteger(((Number) row[1]).intValue()));
+        }
+        loadRoster();
+        openOrders.clear();
+        openOrders.putAll(counts);
+        seeded = true;
+        System.out.println("[DeliveryDispatcher] Loaded open order counts for " + counts.size() + " delivery employees");
+    }
+
+    /**
+     * Employees were added, edited or removed: reload the roster once the surrounding transaction commits
+     */
+    public void employeesChanged() {
+        afterCommit(this::loadRoster);
+    }
+
+    private synchronized void loadRoster() {
+        roster = List.copyOf(employeeRepo.findDeliveryEmployees());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            seed();
+        } catch (Exception e) {
+            // Not fatal: the first assignment will retry
+            System.err.println("[DeliveryDispatcher] Failed to load open order counts: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Pick the delivery employee with the fewest open orders (lowest id on ties)
+     * and count the new order against them straight away, so concurrent checkouts spread out.
+     * If the surrounding transaction rolls back, the count is given back.
+     * @return The assigned employee, or null if there are no delivery employees
+     */
+    public synchronized Employee assign() {
+        if (!seeded) seed();
+
+        List<Employee> deliveryEmployees = roster;
+        if (deliveryEmployees.isEmpty()) {
+            System.out.println("[DeliveryDispatcher] Warning: No delivery employees found in system");
+            return null;
+        }
+
+        Employee assigned = null;
+        int fewest = Integer.MAX_VALUE;
+        for (Employee emp : deliveryEmployees) {
+            int count = openOrders(emp.getId());
+            if (count < fewest) {
+                assigned = emp;
+                fewest = count;
+            }
+        }
+
+        Long assignedId = assigned.getId();
+        increment(assignedId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) decrement(assignedId);
+                }
+            });
+        }
+
+        System.out.println("[DeliveryDispatcher] Available delivery employees: " + deliveryEmployees.size() +
+                ", Assigning to: " + assigned.getName() + " (ID: " + assignedId + "), Open orders: " + fewest);
+        return assigned;
+    }
+
+    /**
+     * An order stopped being open for this employee (delivered, cancelled, reassigned or deleted)
+     */
+    public void release(Long employeeId) {
+        if (employeeId == null) return;
+        afterCommit(() -> decrement(employeeId));
+    }
+
+    /**
+     * An order became open for this employee outside {@link #assign()} (e.g. a manual status change)
+     */
+    public void track(Long employeeId) {
+        if (employeeId == null) return;
+        afterCommit(() -> increment(employeeId));
+    }
+
+    /**
+     * Apply an order edit given {@link #openAssignee(Order)} before and after it
+     */
+    public void orderChanged(Long assigneeBefore, Long assigneeAfter) {
+        if (assigneeBefore != null && assigneeBefore.equals(assigneeAfter)) return;
+        release(assigneeBefore);
+        track(assigneeAfter);
+    }
+
+    /**
+     * Current number of open orders of a delivery employee
+     */
+    public int openOrders(Long employeeId) {
+        AtomicInteger count = openOrders.get(employeeId);
+        return count != null ? count.get() : 0;
+    }
+
+    private synchronized void increment(Long employeeId) {
+        openOrders.computeIfAbsent(employeeId, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private synchronized void decrement(Long employeeId) {
+        AtomicInteger count = openOrders.get(employeeId);
+        if (count != null) count.updateAndGet(n -> Math.max(0, n - 1));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.grocery.service;
+
+import com.example.grocery.repo.FavouriteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FavouriteIdCache
+ * Favourite product ids per user, kept in memory so favourite checks for a whole
+ * product grid are answered without a query per product card.
+ *
+ * A user's ids are loaded with one query on first use. Writes through FavouriteController
+ * are applied once their transaction commits. Loading and updating a user's set both run
+ * under the map's per-key lock, so an update can never be overwritten by a load that read
+ * the table before the write committed.
+ */
+@Service
+public class FavouriteIdCache {
+
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+
+    @Value("${favourites.cache.max-users:10000}")
+    private int maxUsers;
+
+    // Immutable sets, replaced on every change
+    private final Map<Long, Set<Long>> idsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Favourite product ids of a user
+     */
+    public Set<Long> productIds(Long userId) {
+        Set<Long> ids = idsByUser.computeIfAbsent(userId, id -> Set.copyOf(favouriteRepository.findProductIdsByUserId(id)));
+        if (idsByUser.size() > maxUsers) {
+            // Crude bound: start over rather than track recency; sets reload with one query each
+            idsByUser.clear();
+        }
+        return ids;
+    }
+
+    /**
+     * Record a new favourite once the surrounding transaction commits
+     */
+    public void added(Long userId, Long productId) {
+        afterCommit(() -> idsByUser.computeIfPresent(userId, (id, ids) -> {
+            Set<Long> next = new HashSet<>(ids);
+            next.add(productId);
+            return Set.copyOf(next);
+        }));
+    }
+
+    /**
+     * Record a removed favourite once the surrounding transaction commits
+     */
+    public void removed(Long userId, Long productId) {
+        afterCommit(() -> idsByUser.computeIfPresent(userId, (id, ids) -> {
+            Set<Long> next = new HashSet<>(ids);
+            next.remove(productId);
+            return Set.copyOf(next);
+        }));
+    }
+
+    /**
+     * Record that all of a user's favourites were removed once the surrounding transaction commits
+     */
+    public void cleared(Long userId) {
+        afterCommit(() -> idsByUser.computeIfPresent(userId, (id, ids) -> Set.of()));
+    }
+
+    // Immediately when no transaction is active
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
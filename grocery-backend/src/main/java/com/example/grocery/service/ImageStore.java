@@ -0,0 +1,190 @@
+package com.example.grocery.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * ImageStore
+ * Content-addressed blob store for product images on local disk.
+ * Every image is saved once under the SHA-256 of its bytes, so the same picture
+ * used by several products (or categories) takes one file, and a stored image
+ * never changes - clients may cache /api/images/{hash} forever.
+ *
+ * Layout: {file.image-dir}/{first two hex chars}/{hash} plus {hash}.type holding the media type.
+ * Resized variants sit next to the original as {hash}-w{width}, with their own .type file.
+ *
+ * Only PNG, JPEG, GIF and WebP images are accepted, and the stored media type is the one
+ * the bytes' signature shows, never the one the client declared: the store serves from the
+ * API origin, so markup or SVG must never get in.
+ */
+@Service
+public class ImageStore {
+
+    private static final Pattern HASH = Pattern.compile("^[0-9a-f]{64}$");
+    private static final String URL_PREFIX = "/api/images/";
+
+    private static final Set<String> IMAGE_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp");
+
+    @Value("${file.image-dir:uploads/images}")
+    private String imageDir;
+
+    /**
+     * An image on disk with its media type
+     */
+    public record StoredImage(String hash, String contentType, Path path) {}
+
+    /**
+     * Save image bytes, reusing the existing file when the same bytes are already stored
+     * @param declaredType Media type the client sent the image with
+     * @return The SHA-256 hash (lowercase hex) the image is stored under
+     * @throws UnsupportedImageException If the declared type or the bytes are not PNG, JPEG, GIF or WebP
+     */
+    public String store(byte[] bytes, String declaredType) throws IOException {
+        String declared = declaredType == null ? "" : declaredType.trim().toLowerCase();
+        if (declared.equals("image/jpg")) declared = "image/jpeg";
+        String contentType = imageType(bytes);
+        if (!IMAGE_TYPES.contains(declared) || contentType == null) {
+            throw new UnsupportedImageException("Unsupported image type: only PNG, JPEG, GIF and WebP images are accepted");
+        }
+        String hash = sha256(bytes);
+        if (write(hash, hash, bytes, contentType)) {
+            System.out.println("[ImageStore] Stored image " + hash + " (" + bytes.length + " bytes, " + contentType + ")");
+        }
+        return hash;
+    }
+
+    /**
+     * Save a resized variant of a stored image
+     */
+    public void storeVariant(String hash, int width, byte[] bytes, String contentType) throws IOException {
+        write(hash, variantName(hash, width), bytes, contentType);
+    }
+
+    /**
+     * Look up a stored image by hash
+     */
+    public Optional<StoredImage> find(String hash) throws IOException {
+        if (!isHash(hash)) return Optional.empty();
+        return read(hash, hash);
+    }
+
+    /**
+     * Look up a resized variant of a stored image; empty until it has been generated
+     */
+    public Optional<StoredImage> findVariant(String hash, int width) throws IOException {
+        if (!isHash(hash)) return Optional.empty();
+        return read(hash, variantName(hash, width));
+    }
+
+    /**
+     * URL under which a stored image is served
+     */
+    public static String url(String hash) {
+        return URL_PREFIX + hash;
+    }
+
+    /**
+     * Hash referenced by an image URL returned from {@link #url(String)}, or null for any other value
+     */
+    public static String hashFromUrl(String value) {
+        if (value == null || !value.startsWith(URL_PREFIX)) return null;
+        String hash = value.substring(URL_PREFIX.length());
+        return isHash(hash) ? hash : null;
+    }
+
+    /**
+     * Whether a media type may be served from the image store
+     */
+    public static boolean isImageType(String contentType) {
+        return contentType != null && IMAGE_TYPES.contains(contentType);
+    }
+
+    /**
+     * Media type shown by the file signature of image bytes
+     * @return image/png, image/jpeg, image/gif or image/webp; null for anything else
+     */
+    public static String imageType(byte[] bytes) {
+        if (bytes == null) return null;
+        if (startsWith(bytes, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return "image/png";
+        if (startsWith(bytes, 0, 0xFF, 0xD8, 0xFF)) return "image/jpeg";
+        if (startsWith(bytes, 0, 'G', 'I', 'F', '8', '7', 'a') || startsWith(bytes, 0, 'G', 'I', 'F', '8', '9', 'a')) return "image/gif";
+        if (startsWith(bytes, 0, 'R', 'I', 'F', 'F') && startsWith(bytes, 8, 'W', 'E', 'B', 'P')) return "image/webp";
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... signature) {
+        if (bytes.length < offset + signature.length) return false;
+        for (int i = 0; i < signature.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != signature[i]) return false;
+        }
+        return true;
+    }
+
+    public static boolean isHash(String value) {
+        return value != null && HASH.matcher(value).matches();
+    }
+
+    private boolean write(String hash, String name, byte[] bytes, String contentType) throws IOException {
+        Path blob = blobPath(hash, name);
+        if (Files.exists(blob)) {
+            return false;
+        }
+        Files.createDirectories(blob.getParent());
+        // Type file first, then the blob, each moved into place whole: a visible blob is always
+        // complete and has its type; a crash in between leaves only a type file, rewritten on retry
+        moveIntoPlace(typePath(hash, name), contentType.getBytes(StandardCharsets.UTF_8));
+        moveIntoPlace(blob, bytes);
+        return true;
+    }
+
+    // Write to a temp file in the target's directory, then rename it over the target atomically
+    private static void moveIntoPlace(Path target, byte[] bytes) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Stored concurrently by another request; the content is identical
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Optional<StoredImage> read(String hash, String name) throws IOException {
+        Path blob = blobPath(hash, name);
+        if (!Files.exists(blob)) return Optional.empty();
+        Path type = typePath(hash, name);
+        String contentType = Files.exists(type) ? Files.readString(type, StandardCharsets.UTF_8).trim() : "application/octet-stream";
+        return Optional.of(new StoredImage(hash, contentType, blob));
+    }
+
+    private static String variantName(String hash, int width) {
+        return hash + "-w" + width;
+    }
+
+    private Path blobPath(String hash, String name) {
+        return Paths.get(imageDir, hash.substring(0, 2), name);
+    }
+
+    private Path typePath(String hash, String name) {
+        return Paths.get(imageDir, hash.substring(0, 2), name + ".type");
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
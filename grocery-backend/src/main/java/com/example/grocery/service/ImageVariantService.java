@@ -0,0 +1,167 @@
+package com.example.grocery.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ImageVariantService
+ * Generates fixed-width copies of stored product images with the JDK's ImageIO,
+ * so listing cards can load a thumbnail instead of the full upload.
+ * Variants are written to the {@link ImageStore} next to the original and,
+ * like the original, never change once written.
+ */
+@Service
+public class ImageVariantService {
+
+    /** Widths clients can ask for with ?w= (a request is rounded up to the next one) */
+    public static final int[] WIDTHS = {96, 256, 768};
+
+    /** Largest width or height decoded; a small compressed file can declare a huge raster */
+    private static final int MAX_DIMENSION = 8000;
+
+    // Bound on remembered failures before the set starts over
+    private static final int MAX_UNSUPPORTED = 10000;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    // Hashes that are not decoded (no ImageIO reader, e.g. WebP, or over MAX_DIMENSION);
+    // the original is served for every width
+    private final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Supported width to serve for a requested width: the smallest one at least as wide,
+     * or the largest one for anything bigger
+     */
+    public static int variantWidth(int requested) {
+        for (int width : WIDTHS) {
+            if (requested <= width) return width;
+        }
+        return WIDTHS[WIDTHS.length - 1];
+    }
+
+    /**
+     * Generate every variant of a freshly stored image in the background
+     */
+    @Async("imageTaskExecutor")
+    public void generateVariants(String hash) {
+        try {
+            for (int width : WIDTHS) {
+                if (findOrCreateVariant(hash, width).isEmpty()) break;
+            }
+        } catch (Exception e) {
+            // Missing variants are generated on first request instead
+            System.err.println("[ImageVariantService] Failed to generate variants for " + hash + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Variant of a stored image at one of {@link #WIDTHS}, generating it if it does not exist yet
+     * @return The variant, or empty when the original should be served instead
+     *         (image not found, not decodable, or already no wider than the variant)
+     */
+    public Optional<ImageStore.StoredImage> findOrCreateVariant(String hash, int width) throws IOException {
+        Optional<ImageStore.StoredImage> variant = imageStore.findVariant(hash, width);
+        if (variant.isPresent() || unsupported.contains(hash)) return variant;
+
+        Optional<ImageStore.StoredImage> original = imageStore.find(hash);
+        if (original.isEmpty()) return Optional.empty();
+
+        BufferedImage source = decode(original.get().path());
+        if (source == null) {
+            if (unsupported.size() >= MAX_UNSUPPORTED) {
+                // Crude bound: forgetting a failure only costs one more header read
+                unsupported.clear();
+            }
+            unsupported.add(hash);
+            return Optional.empty();
+        }
+        if (source.getWidth() <= width) {
+            // Never upscale; the original is already small enough
+            return Optional.empty();
+        }
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        String format = alpha ? "png" : "jpg";
+        BufferedImage scaled = scale(source, width, alpha);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(scaled, format, out);
+        imageStore.storeVariant(hash, width, out.toByteArray(), alpha ? "image/png" : "image/jpeg");
+        System.out.println("[ImageVariantService] Generated " + width + "px variant of " + hash +
+                " (" + Files.size(original.get().path()) + " -> " + out.size() + " bytes)");
+        return imageStore.findVariant(hash, width);
+    }
+
+    /**
+     * Decode an image after checking its declared size from the header, so the raster is
+     * only allocated for images up to {@link #MAX_DIMENSION} on each side
+     * @return The image, or null if no reader supports it or it is too large
+     */
+    private static BufferedImage decode(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width > MAX_DIMENSION || height > MAX_DIMENSION) {
+                    System.err.println("[ImageVariantService] Not decoding " + path.getFileName() + ": " +
+                            width + "x" + height + " exceeds " + MAX_DIMENSION + "px");
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Downscale in halving steps with bilinear filtering; a single large bilinear step drops too many pixels
+     */
+    private static BufferedImage scale(BufferedImage source, int targetWidth, boolean alpha) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (!alpha) {
+                    // JPEG has no transparency; flatten onto white instead of black
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, w, h);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+}
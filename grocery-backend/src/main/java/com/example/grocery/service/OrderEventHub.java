@@ -0,0 +1,207 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.OrderEvent;
+import com.example.grocery.model.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * OrderEventHub
+ * Pushes order state changes to employee dashboards over Server-Sent Events,
+ * so dashboards refetch only when something changed instead of polling every 30 seconds.
+ *
+ * Events go to channels: one per employee ({@link #employeeChannel(Long)}) and one for
+ * all payment handlers ({@link #PAYMENT_HANDLERS}). They are published after the
+ * surrounding transaction commits and numbered "&lt;boot id&gt;-&lt;sequence&gt;". The last
+ * {@code events.history-size} events are kept so a client reconnecting with Last-Event-ID
+ * gets what it missed; when that is no longer possible (history overflowed or the server
+ * restarted) it gets a single resync event and reloads its data instead.
+ */
+@Service
+public class OrderEventHub {
+
+    public static final String PAYMENT_HANDLERS = "role:payment-handler";
+
+    private static final long RECONNECT_MS = 3000;
+
+    @Value("${events.history-size:1000}")
+    private int historySize;
+
+    @Value("${events.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // Distinguishes event ids of this run from ids handed out before a restart
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    // Guarded by itself: sequence numbers, history and subscriber registration change together
+    private final Deque<Published> history = new ArrayDeque<>();
+    private long sequence;
+
+    private final Set<Subscription> subscriptions = new CopyOnWriteArraySet<>();
+
+    private record Published(long sequence, OrderEvent event, Set<String> channels) {}
+
+    // sendLock keeps one client's events in order: replay first, then live events
+    private record Subscription(SseEmitter emitter, Set<String> channels, ReentrantLock sendLock) {
+        boolean wants(Published published) {
+            return !Collections.disjoint(channels, published.channels());
+        }
+    }
+
+    /**
+     * Channel of one employee's dashboard
+     */
+    public static String employeeChannel(Long employeeId) {
+        return employeeId == null ? null : "employee:" + employeeId;
+    }
+
+    /**
+     * Publish an order change to the given channels once the current transaction commits
+     * (immediately when there is none). Null channels are ignored.
+     */
+    public void publish(String type, Order order, String... channels) {
+        Set<String> targets = new LinkedHashSet<>();
+        for (String channel : channels) {
+            if (channel != null) targets.add(channel);
+        }
+        if (targets.isEmpty()) return;
+
+        // Capture the order as saved now; the entity may change before the commit callback runs
+        Long orderId = order.getId();
+        String status = order.getStatus();
+        String paymentStatus = order.getPaymentStatus();
+        Long deliveryEmployeeId = order.getDeliveryEmployee() != null ? order.getDeliveryEmployee().getId() : null;
+
+        afterCommit(() -> dispatch(type, orderId, status, paymentStatus, deliveryEmployeeId, targets));
+    }
+
+    /**
+     * Open an event stream for the given channels
+     * @param lastEventId Last event the client received, or null for a fresh connection
+     */
+    public SseEmitter subscribe(Set<String> channels, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(emitter, Set.copyOf(channels), new ReentrantLock());
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+
+        List<OrderEvent> missed = new ArrayList<>();
+        OrderEvent resync = null;
+        synchronized (history) {
+            // Registered under the lock, so every event is either replayed here or dispatched live, never both
+            subscriptions.add(subscription);
+            if (lastEventId != null && !lastEventId.isEmpty()) {
+                long after = sequenceOf(lastEventId);
+                long oldest = history.isEmpty() ? sequence + 1 : history.peekFirst().sequence();
+                if (after < 0 || after > sequence || after + 1 < oldest) {
+                    resync = new OrderEvent(bootId + "-" + sequence, "resync", null, null, null, null, new Date());
+                } else {
+                    for (Published published : history) {
+                        if (published.sequence() > after && subscription.wants(published)) {
+                            missed.add(published.event());
+                        }
+                    }
+                }
+            }
+            // Taken before the history lock is released: a live event dispatched from now on
+            // waits in send() until the replay below has gone out
+            subscription.sendLock().lock();
+        }
+
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT_MS).comment("connected"));
+            if (resync != null) {
+                emitter.send(SseEmitter.event().id(resync.id()).data(resync));
+            }
+            for (OrderEvent event : missed) {
+                emitter.send(SseEmitter.event().id(event.id()).data(event));
+            }
+        } catch (IOException e) {
+            subscriptions.remove(subscription);
+            emitter.completeWithError(e);
+        } finally {
+            subscription.sendLock().unlock();
+        }
+        return emitter;
+    }
+
+    /**
+     * Keep idle streams open through proxies and notice clients that went away
+     */
+    @Scheduled(fixedRate = 25000)
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            send(subscription, SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void dispatch(String type, Long orderId, String status, String paymentStatus,
+                          Long deliveryEmployeeId, Set<String> channels) {
+        Published published;
+        List<Subscription> recipients = new ArrayList<>();
+        synchronized (history) {
+            long seq = ++sequence;
+            OrderEvent event = new OrderEvent(bootId + "-" + seq, type, orderId, status, paymentStatus,
+                    deliveryEmployeeId, new Date());
+            published = new Published(seq, event, channels);
+            history.addLast(published);
+            while (history.size() > historySize) history.removeFirst();
+            for (Subscription subscription : subscriptions) {
+                if (subscription.wants(published)) recipients.add(subscription);
+            }
+        }
+
+        // Sent outside the lock so one slow client cannot hold up publishers
+        for (Subscription subscription : recipients) {
+            send(subscription, SseEmitter.event().id(published.event().id()).data(published.event()));
+        }
+        System.out.println("[OrderEventHub] " + type + " for order #" + orderId + " -> " + channels +
+                " (" + recipients.size() + " listeners)");
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        subscription.sendLock().lock();
+        try {
+            subscription.emitter().send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the browser reconnects with Last-Event-ID if it is still there
+            subscriptions.remove(subscription);
+        } finally {
+            subscription.sendLock().unlock();
+        }
+    }
+
+    // Sequence number of an id from this run, or -1 if it was issued before a restart or is malformed
+    private long sequenceOf(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(bootId)) return -1;
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
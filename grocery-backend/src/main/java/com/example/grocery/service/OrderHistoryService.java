@@ -0,0 +1,115 @@
+package com.example.grocery.service;
+
+import com.example.grocery.model.Order;
+import com.example.grocery.repo.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * OrderHistoryService
+ * Pages through a customer's orders, newest first, with keyset pagination on
+ * (created_at, id): each page continues after the last order of the previous one,
+ * so deep pages cost the same as the first and orders placed meanwhile never
+ * shift or duplicate rows. Served by the (customer_id, created_at, id) index.
+ *
+ * Orders from before created_at was recorded may still have it NULL (schema.sql backfills
+ * them); they are listed after all dated orders, newest id first.
+ */
+@Service
+public class OrderHistoryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Value("${orders.history.page-size:20}")
+    private int defaultPageSize;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    /**
+     * One page of orders
+     * @param orders Orders of this page, newest first
+     * @param nextCursor Token for the next page, or null on the last page
+     */
+    public record Page(List<Order> orders, String nextCursor) {
+        public boolean hasMore() { return nextCursor != null; }
+    }
+
+    /**
+     * Load one page of a customer's order history
+     * @param customerId The customer's user ID
+     * @param cursor Token from the previous page, or null/empty for the first page
+     * @param limit Page size; the configured default when null, capped at 100
+     * @throws IllegalArgumentException If the cursor is not a token returned by this service
+     */
+    public Page page(Long customerId, String cursor, Integer limit) {
+        int size = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, MAX_PAGE_SIZE);
+        // One extra row tells whether another page follows
+        PageRequest window = PageRequest.of(0, size + 1);
+
+        List<Order> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = orderRepo.findHistory(customerId, window);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            rows = after.createdAt() != null
+                    ? orderRepo.findHistoryAfter(customerId, after.createdAt(), after.id(), window)
+                    : orderRepo.findUndatedHistoryAfter(customerId, after.id(), window);
+        }
+
+        if (rows.size() <= size) {
+            return new Page(rows, null);
+        }
+        List<Order> orders = new ArrayList<>(rows.subList(0, size));
+        Order last = orders.get(size - 1);
+        return new Page(orders, new Cursor(timestamp(last.getCreatedAt()), last.getId()).encode());
+    }
+
+    // created_at is DATETIME(6); keep sub-millisecond precision when the driver provides it
+    private static Timestamp timestamp(Date date) {
+        if (date == null) return null;
+        return date instanceof Timestamp ts ? ts : new Timestamp(date.getTime());
+    }
+
+    /**
+     * Position after which the next page starts.
+     * Encoded as URL-safe base64 of "epochSeconds.nanos.id", or just "id" after an order
+     * without created_at; clients treat it as opaque.
+     */
+    private record Cursor(Timestamp createdAt, Long id) {
+
+        String encode() {
+            String raw;
+            if (createdAt == null) {
+                raw = String.valueOf(id);
+            } else {
+                long seconds = Math.floorDiv(createdAt.getTime(), 1000L);
+                raw = seconds + "." + createdAt.getNanos() + "." + id;
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\.");
+                if (parts.length == 1) return new Cursor(null, Long.parseLong(parts[0]));
+                if (parts.length != 3) throw new IllegalArgumentException(raw);
+                Timestamp createdAt = new Timestamp(Long.parseLong(parts[0]) * 1000L);
+                createdAt.setNanos(Integer.parseInt(parts[1]));
+                return new Cursor(createdAt, Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
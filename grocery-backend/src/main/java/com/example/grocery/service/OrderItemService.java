@@ -0,0 +1,55 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.OrderItemDTO;
+import com.example.grocery.dto.OrderItemRow;
+import com.example.grocery.model.Order;
+import com.example.grocery.repo.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * OrderItemService
+ * Loads order lines for order responses as {@link OrderItemDTO}s,
+ * one query per batch of orders instead of walking each order's items and products.
+ */
+@Service
+public class OrderItemService {
+
+    // Keeps the IN list of a single query at a size every database handles well
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    /**
+     * Lines of the given orders
+     * @return Order id -> lines in insertion order; orders without lines map to an empty list
+     */
+    public Map<Long, List<OrderItemDTO>> findItems(Collection<Order> orders) {
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+        }
+        return findItemsByOrderId(orderIds);
+    }
+
+    /**
+     * Lines of the given order ids
+     * @return Order id -> lines in insertion order; orders without lines map to an empty list
+     */
+    public Map<Long, List<OrderItemDTO>> findItemsByOrderId(List<Long> orderIds) {
+        Map<Long, List<OrderItemDTO>> items = new HashMap<>();
+        for (Long orderId : orderIds) {
+            items.put(orderId, new ArrayList<>());
+        }
+        for (int from = 0; from < orderIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = orderIds.subList(from, Math.min(orderIds.size(), from + BATCH_SIZE));
+            for (OrderItemRow row : orderRepo.findItemRows(batch)) {
+                items.get(row.orderId()).add(row.toItem());
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+
+import java.util.*;
+
+/**
+ * PrefixSuggester
+ * Immutable prefix lookup over the product names of one category, for typeahead.
+ * Every word start of a normalized name is a key ("green apple" is filed under
+ * "green apple" and "apple"), kept in one sorted array: a prefix is found with a
+ * binary search and its matches are the contiguous run of keys that follow.
+ *
+ * One suggester is built per category, so a catalog write only rebuilds the
+ * suggester of the category it touched.
+ */
+public final class PrefixSuggester {
+
+    private final List<CatalogRow> products;
+
+    // Sorted keys; rows[k] is the product index of keys[k], nameStart[k] whether it is the whole name
+    private final String[] keys;
+    private final int[] rows;
+    private final boolean[] nameStart;
+
+    PrefixSuggester(List<CatalogRow> products) {
+        this.products = products;
+
+        List<Key> entries = new ArrayList<>();
+        for (int row = 0; row < products.size(); row++) {
+            String name = normalize(products.get(row).name());
+            if (name.isEmpty()) continue;
+            int start = 0;
+            while (true) {
+                entries.add(new Key(name.substring(start), row, start == 0));
+                int space = name.indexOf(' ', start);
+                if (space < 0) break;
+                start = space + 1;
+            }
+        }
+        entries.sort(Comparator.comparing(Key::key));
+
+        this.keys = new String[entries.size()];
+        this.rows = new int[entries.size()];
+        this.nameStart = new boolean[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            keys[i] = entries.get(i).key();
+            rows[i] = entries.get(i).row();
+            nameStart[i] = entries.get(i).nameStart();
+        }
+    }
+
+    private record Key(String key, int row, boolean nameStart) {}
+
+    /**
+     * Products with a name word starting with the prefix
+     * @param prefix A prefix already passed through {@link #normalize(String)}
+     * @return Product -> whether the whole name starts with the prefix; each product once
+     */
+    public Map<CatalogRow, Boolean> match(String prefix) {
+        int from = Arrays.binarySearch(keys, prefix);
+        if (from < 0) from = -from - 1;
+        Map<CatalogRow, Boolean> matches = new LinkedHashMap<>();
+        for (int k = from; k < keys.length && keys[k].startsWith(prefix); k++) {
+            matches.merge(products.get(rows[k]), nameStart[k], Boolean::logicalOr);
+        }
+        return matches;
+    }
+
+    /**
+     * Lowercase, letters and digits only, single spaces between words
+     */
+    public static String normalize(String text) {
+        if (text == null) return "";
+        StringJoiner words = new StringJoiner(" ");
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words.toString();
+    }
+}
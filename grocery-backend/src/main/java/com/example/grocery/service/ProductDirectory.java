@@ -0,0 +1,56 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ProductDirectory
+ * Immutable product id -> category lookup over the active products of one catalog snapshot,
+ * replacing the probe of all eight category tables for callers that only know the id,
+ * plus (category, id) -> product for batch lookups.
+ *
+ * The directory is complete for its snapshot, so an unknown id is answered from memory too
+ * (negative lookups never reach the database). Each category table has its own id sequence;
+ * when an id exists in several tables the first category in {@link CatalogCategory} order wins,
+ * the same order the table probes used.
+ */
+public final class ProductDirectory {
+
+    private final Map<Long, CatalogCategory> categories;
+    private final Map<CatalogCategory, Map<Long, CatalogRow>> rows;
+
+    ProductDirectory(Map<CatalogCategory, List<CatalogRow>> products) {
+        Map<Long, CatalogCategory> index = new HashMap<>();
+        Map<CatalogCategory, Map<Long, CatalogRow>> byId = new EnumMap<>(CatalogCategory.class);
+        for (CatalogCategory category : CatalogCategory.values()) {
+            Map<Long, CatalogRow> categoryRows = new HashMap<>();
+            for (CatalogRow row : products.get(category)) {
+                index.putIfAbsent(row.id(), category);
+                categoryRows.put(row.id(), row);
+            }
+            byId.put(category, categoryRows);
+        }
+        this.categories = index;
+        this.rows = byId;
+    }
+
+    /**
+     * Category of an active product
+     * @return The owning category, or null if no active product has this id
+     */
+    public CatalogCategory categoryOf(Long id) {
+        return id == null ? null : categories.get(id);
+    }
+
+    /**
+     * Active product of a category
+     * @return The product, or null if the category has no active product with this id
+     */
+    public CatalogRow find(CatalogCategory category, Long id) {
+        return id == null ? null : rows.get(category).get(id);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.grocery.service;
+
+import com.example.grocery.repo.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ProductImageService
+ * Product images are kept in the {@link ImageStore}; the category tables only hold
+ * their URL (/api/images/{hash}). Rows written before the store existed still carry
+ * base64 data URLs - listings link to those via /api/images/{category}/{id} until
+ * the startup migration has moved them into the store.
+ */
+@Service
+public class ProductImageService {
+
+    // Matches legacy listing image URLs, with or without scheme and host
+    private static final Pattern IMAGE_URL = Pattern.compile("^(?:https?://[^/]+)?/api/images/([a-z]+)/(\\d+)$");
+
+    @Autowired
+    private BakeryRepository bakeryRepo;
+
+    @Autowired
+    private FruitsRepository fruitsRepo;
+
+    @Autowired
+    private DairyRepository dairyRepo;
+
+    @Autowired
+    private MeatRepository meatRepo;
+
+    @Autowired
+    private BeveragesRepository beveragesRepo;
+
+    @Autowired
+    private GrainsRepository grainsRepo;
+
+    @Autowired
+    private VegetablesRepository vegetablesRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    /**
+     * Decoded image bytes with their media type
+     */
+    public record ImageData(String contentType, byte[] bytes) {}
+
+    /**
+     * URL under which a product whose image is still stored inline is served to listing clients
+     */
+    public static String imageUrl(CatalogCategory category, Long id) {
+        return "/api/images/" + category.getKey() + "/" + id;
+    }
+
+    /**
+     * Load the raw stored image value (data URL or external URL) of one product
+     */
+    public Optional<String> findStoredImage(CatalogCategory category, Long id) {
+        switch (category) {
+            case BAKERY: return bakeryRepo.findImageById(id);
+            case FRUITS: return fruitsRepo.findImageById(id);
+            case DAIRY: return dairyRepo.findImageById(id);
+            case MEAT: return meatRepo.findImageById(id);
+            case BEVERAGES: return beveragesRepo.findImageById(id);
+            case GRAINS: return grainsRepo.findImageById(id);
+            case VEGETABLES: return vegetablesRepo.findImageById(id);
+            case PRODUCTS: return productRepo.findImageById(id);
+            default: return Optional.empty();
+        }
+    }
+
+    /**
+     * Turn an image value from a create/update request into what is saved in the category table.
+     * - Data URLs are moved into the image store (thumbnails follow in the background)
+     *   and replaced by their /api/images/{hash} URL; they must hold a PNG, JPEG, GIF or WebP image
+     * - A listing URL (/api/images/{category}/{id}) sent back unchanged resolves to the image it points to
+     * - Anything else (external URLs, image store URLs, null) is kept as is
+     * @throws UnsupportedImageException For a data URL that does not hold an accepted image
+     */
+    public String prepareForStorage(String image) {
+        if (image == null) return null;
+        Matcher matcher = IMAGE_URL.matcher(image.trim());
+        if (matcher.matches()) {
+            CatalogCategory category = CatalogCategory.fromKey(matcher.group(1));
+            if (category != null) {
+                image = findStoredImage(category, Long.valueOf(matcher.group(2))).orElse(null);
+            }
+        }
+        ImageData data = decodeDataUrl(image);
+        if (data == null) return image;
+        try {
+            String hash = imageStore.store(data.bytes(), data.contentType());
+            imageVariantService.generateVariants(hash);
+            return ImageStore.url(hash);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store product image", e);
+        }
+    }
+
+    /**
+     * Move base64 images still stored inline in the category tables into the image store.
+     * Runs at every startup; once everything is migrated it is a single query per category.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInlineImages() {
+        for (CatalogCategory category : CatalogCategory.values()) {
+            try {
+                List<Long> ids = findIdsWithInlineImage(category);
+                if (ids.isEmpty()) continue;
+                int migrated = 0;
+                // One row at a time, so only a single base64 image is in memory at once
+                for (Long id : ids) {
+                    String image = findStoredImage(category, id).orElse(null);
+                    String stored;
+                    try {
+                        stored = prepareForStorage(image);
+                    } catch (UnsupportedImageException e) {
+                        // Left inline; /api/images/{category}/{id} refuses to serve it
+                        System.err.println("[ProductImageService] Skipped " + category.getKey() + " " + id + ": " + e.getMessage());
+                        continue;
+                    }
+                    if (stored != null && !stored.equals(image)) {
+                        updateImage(category, id, stored);
+                        migrated++;
+                    }
+                }
+                System.out.println("[ProductImageService] Moved " + migrated + " " + category.getKey() + " images to the image store");
+                catalogService.refresh(category);
+            } catch (Exception e) {
+                // Rows left inline keep working through /api/images/{category}/{id}; retried on next startup
+                System.err.println("[ProductImageService] Image migration failed for " + category.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private List<Long> findIdsWithInlineImage(CatalogCategory category) {
+        switch (category) {
+            case BAKERY: return bakeryRepo.findIdsWithInlineImage();
+            case FRUITS: return fruitsRepo.findIdsWithInlineImage();
+            case DAIRY: return dairyRepo.findIdsWithInlineImage();
+            case MEAT: return meatRepo.findIdsWithInlineImage();
+            case BEVERAGES: return beveragesRepo.findIdsWithInlineImage();
+            case GRAINS: return grainsRepo.findIdsWithInlineImage();
+            case VEGETABLES: return vegetablesRepo.findIdsWithInlineImage();
+            case PRODUCTS: return productRepo.findIdsWithInlineImage();
+            default: return List.of();
+        }
+    }
+
+    private void updateImage(CatalogCategory category, Long id, String image) {
+        switch (category) {
+            case BAKERY: bakeryRepo.updateImage(id, image); break;
+            case FRUITS: fruitsRepo.updateImage(id, image); break;
+            case DAIRY: dairyRepo.updateImage(id, image); break;
+            case MEAT: meatRepo.updateImage(id, image); break;
+            case BEVERAGES: beveragesRepo.updateImage(id, image); break;
+            case GRAINS: grainsRepo.updateImage(id, image); break;
+            case VEGETABLES: vegetablesRepo.updateImage(id, image); break;
+            case PRODUCTS: productRepo.updateImage(id, image); break;
+        }
+    }
+
+    /**
+     * Decode a data URL (data:image/png;base64,....)
+     * @return The decoded image, or null if the value is not a data URL
+     */
+    public static ImageData decodeDataUrl(String value) {
+        if (value == null || !value.startsWith("data:")) return null;
+        int comma = value.indexOf(',');
+        if (comma < 0) return null;
+        String header = value.substring(5, comma);
+        String payload = value.substring(comma + 1);
+        boolean base64 = header.endsWith(";base64");
+        if (base64) header = header.substring(0, header.length() - ";base64".length());
+        int semicolon = header.indexOf(';');
+        String contentType = semicolon >= 0 ? header.substring(0, semicolon) : header;
+        if (contentType.isEmpty()) contentType = "application/octet-stream";
+        try {
+            byte[] bytes = base64
+                    ? Base64.getMimeDecoder().decode(payload)
+                    : URLDecoder.decode(payload, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+            return new ImageData(contentType, bytes);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+import com.example.grocery.repo.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ProductPopularity
+ * Units sold per product, kept in memory to rank typeahead suggestions.
+ * Counted up as orders commit, so ranking never queries the database.
+ *
+ * Order lines keep only the product id, and every category table has its own id
+ * sequence, so past sales can only be attributed where the id is unambiguous. At startup
+ * the history is loaded for ids that exactly one category has; sales of ids shared by
+ * several categories start from zero and are counted from the next order on.
+ */
+@Service
+public class ProductPopularity {
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    // "category:id" -> units sold; product ids are only unique within a category
+    private final Map<String, LongAdder> unitsSold = new ConcurrentHashMap<>();
+
+    /**
+     * Units sold of a catalog product, 0 if never ordered
+     */
+    public long unitsSold(CatalogRow product) {
+        LongAdder units = unitsSold.get(key(product.category(), product.id()));
+        return units != null ? units.sum() : 0;
+    }
+
+    /**
+     * Count the lines of a placed order once the surrounding transaction commits
+     * (immediately when there is none)
+     */
+    public void recordSales(List<StockService.StockLine> lines) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(lines);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(lines);
+            }
+        });
+    }
+
+    private void add(List<StockService.StockLine> lines) {
+        for (StockService.StockLine line : lines) {
+            unitsSold.computeIfAbsent(key(line.category().getKey(), line.productId()), k -> new LongAdder())
+                    .add(line.quantity());
+        }
+    }
+
+    /**
+     * Load units sold from the order history for product ids that belong to a single
+     * category; ids present in several categories are skipped rather than guessed
+     */
+    void seed() {
+        ProductDirectory directory = catalogService.snapshot().getDirectory();
+        int products = 0;
+        int ambiguous = 0;
+        for (Object[] row : orderRepo.sumUnitsSoldByProduct()) {
+            Long productId = ((Number) row[0]).longValue();
+            CatalogCategory owner = null;
+            int owners = 0;
+            for (CatalogCategory category : CatalogCategory.values()) {
+                if (directory.find(category, productId) != null) {
+                    owner = category;
+                    owners++;
+                }
+            }
+            if (owners > 1) ambiguous++;
+            if (owners != 1) continue;
+            unitsSold.computeIfAbsent(key(owner.getKey(), productId), k -> new LongAdder())
+                    .add(((Number) row[1]).longValue());
+            products++;
+        }
+        System.out.println("[ProductPopularity] Loaded units sold for " + products + " products (" +
+                ambiguous + " ids shared by several categories skipped)");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            seed();
+        } catch (Exception e) {
+            // Not fatal: suggestions fall back to name order until orders come in
+            System.err.println("[ProductPopularity] Failed to load units sold: " + e.getMessage());
+        }
+    }
+
+    private static String key(String category, Long productId) {
+        return category + ":" + productId;
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+
+import java.util.*;
+
+/**
+ * ProductSearchIndex
+ * Immutable inverted index over product names and descriptions.
+ * Built once per catalog snapshot; a query only touches the posting lists
+ * of the terms it matches instead of scanning every product.
+ *
+ * Matching rules:
+ * - Text is lowercased and split into words on anything that is not a letter or digit
+ * - Every query word must match (AND), either exactly or as a word prefix ("ban" finds "banana")
+ * - A query word that matches no name word, exactly or as a prefix, is also treated as a typo:
+ *   it matches name words within a small edit distance ("brocoli" finds "broccoli", "yoghurt"
+ *   finds "yogurt"), even when it happens to prefix a description word
+ * - Name matches outrank description matches; exact words outrank prefixes, which outrank typo matches
+ *
+ * Typo candidates come from a trigram index over the name vocabulary, so only words sharing
+ * enough trigrams with the query word are compared by edit distance.
+ */
+public final class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_MATCH_BOOST = 6;
+    private static final int PREFIX_MATCH_BOOST = 3;
+    // A typo match scores PREFIX_MATCH_BOOST minus its edit distance
+
+    // Shorter words allow fewer edits: up to 3 letters none, up to 5 one, longer two
+    private static final int ONE_EDIT_MIN_LENGTH = 4;
+    private static final int TWO_EDITS_MIN_LENGTH = 6;
+
+    private final List<CatalogRow> products;
+
+    // Sorted vocabulary; postingDocs[t] / postingWeights[t] belong to terms[t]
+    private final String[] terms;
+    private final int[][] postingDocs;
+    private final int[][] postingWeights;
+
+    // nameTerms[t] is set when terms[t] occurs in some product name
+    private final boolean[] nameTerms;
+
+    // Sorted trigrams of name words; gramTerms[g] lists the term indexes containing grams[g]
+    private final String[] grams;
+    private final int[][] gramTerms;
+
+    public ProductSearchIndex(List<CatalogRow> products) {
+        this.products = products;
+
+        TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+        for (int doc = 0; doc < products.size(); doc++) {
+            CatalogRow product = products.get(doc);
+            addField(postings, doc, product.name(), NAME_WEIGHT);
+            addField(postings, doc, product.description(), DESCRIPTION_WEIGHT);
+        }
+
+        this.terms = new String[postings.size()];
+        this.postingDocs = new int[postings.size()][];
+        this.postingWeights = new int[postings.size()][];
+        int t = 0;
+        for (Map.Entry<String, Map<Integer, Integer>> entry : postings.entrySet()) {
+            terms[t] = entry.getKey();
+            int[] docs = new int[entry.getValue().size()];
+            int[] weights = new int[docs.length];
+            int k = 0;
+            for (Map.Entry<Integer, Integer> posting : entry.getValue().entrySet()) {
+                docs[k] = posting.getKey();
+                weights[k] = posting.getValue();
+                k++;
+            }
+            postingDocs[t] = docs;
+            postingWeights[t] = weights;
+            t++;
+        }
+
+        // Typo matching only corrects towards name words
+        TreeMap<String, List<Integer>> trigrams = new TreeMap<>();
+        Set<String> nameWords = new HashSet<>();
+        for (CatalogRow product : products) {
+            nameWords.addAll(tokenize(product.name()));
+        }
+        this.nameTerms = new boolean[terms.length];
+        for (int term = 0; term < terms.length; term++) {
+            if (!nameWords.contains(terms[term])) continue;
+            nameTerms[term] = true;
+            for (String gram : trigrams(terms[term])) {
+                trigrams.computeIfAbsent(gram, k -> new ArrayList<>()).add(term);
+            }
+        }
+        this.grams = trigrams.keySet().toArray(new String[0]);
+        this.gramTerms = new int[grams.length][];
+        int g = 0;
+        for (List<Integer> termIds : trigrams.values()) {
+            gramTerms[g++] = termIds.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Find products matching every word of the query, best matches first, without typo matching
+     * @param query Free-text query as typed by the user
+     * @return Matching products ranked by score; ties keep catalog order
+     */
+    public List<CatalogRow> search(String query) {
+        return search(query, 0);
+    }
+
+    /**
+     * Find products matching every word of the query, best matches first
+     * @param query Free-text query as typed by the user
+     * @param maxEdits Most edits (insert, delete, replace, swap) allowed to correct a word that matches no name word; 0 disables typo matching
+     * @return Matching products ranked by score; ties keep catalog order
+     */
+    public List<CatalogRow> search(String query, int maxEdits) {
+        int[] scores = score(query, maxEdits);
+
+        List<Integer> hits = new ArrayList<>();
+        for (int doc = 0; doc < scores.length; doc++) {
+            if (scores[doc] >= 0) hits.add(doc);
+        }
+        hits.sort((a, b) -> scores[a] != scores[b] ? Integer.compare(scores[b], scores[a]) : Integer.compare(a, b));
+
+        List<CatalogRow> results = new ArrayList<>(hits.size());
+        for (int doc : hits) {
+            results.add(products.get(doc));
+        }
+        return results;
+    }
+
+    /**
+     * Score every product against the query, with the same matching rules as {@link #search(String, int)}
+     * @return Scores in the order of the products the index was built from; -1 where a product does not match
+     */
+    public int[] score(String query, int maxEdits) {
+        List<String> words = tokenize(query);
+        int[] scores = new int[products.size()];
+        if (words.isEmpty()) {
+            Arrays.fill(scores, -1);
+            return scores;
+        }
+
+        // matched[doc] == number of query words the doc has matched so far;
+        // a doc that misses one word falls behind and can never catch up (AND semantics)
+        int[] matched = new int[products.size()];
+        for (int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            int from = Arrays.binarySearch(terms, word);
+            if (from < 0) from = -from - 1;
+            boolean foundInName = false;
+            for (int t = from; t < terms.length && terms[t].startsWith(word); t++) {
+                int boost = terms[t].length() == word.length() ? EXACT_MATCH_BOOST : PREFIX_MATCH_BOOST;
+                addPostings(t, boost, w, matched, scores);
+                foundInName |= nameTerms[t];
+            }
+            // Description hits alone do not rule out a misspelled name word
+            if (!foundInName) {
+                int allowed = allowedEdits(word, maxEdits);
+                for (Map.Entry<Integer, Integer> correction : corrections(word, allowed).entrySet()) {
+                    addPostings(correction.getKey(), PREFIX_MATCH_BOOST - correction.getValue(), w, matched, scores);
+                }
+            }
+        }
+
+        for (int doc = 0; doc < matched.length; doc++) {
+            if (matched[doc] != words.size()) scores[doc] = -1;
+        }
+        return scores;
+    }
+
+    private void addPostings(int term, int boost, int w, int[] matched, int[] scores) {
+        int[] docs = postingDocs[term];
+        int[] weights = postingWeights[term];
+        for (int k = 0; k < docs.length; k++) {
+            int doc = docs[k];
+            if (matched[doc] == w) matched[doc] = w + 1;
+            if (matched[doc] == w + 1) scores[doc] += weights[k] * boost;
+        }
+    }
+
+    private static int allowedEdits(String word, int maxEdits) {
+        int byLength = word.length() >= TWO_EDITS_MIN_LENGTH ? 2 : word.length() >= ONE_EDIT_MIN_LENGTH ? 1 : 0;
+        return Math.min(byLength, maxEdits);
+    }
+
+    /**
+     * Name words within the allowed edit distance of a word
+     * @return Term index -> edit distance
+     */
+    private Map<Integer, Integer> corrections(String word, int allowed) {
+        if (allowed <= 0 || grams.length == 0) return Map.of();
+
+        // Count the query word's trigrams each name word shares
+        Set<String> wordGrams = trigrams(word);
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : wordGrams) {
+            int g = Arrays.binarySearch(grams, gram);
+            if (g < 0) continue;
+            for (int term : gramTerms[g]) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+
+        // One edit changes at most four trigrams (a swap), so fewer shared ones rule a word out
+        int minShared = Math.max(1, wordGrams.size() - 4 * allowed);
+        Map<Integer, Integer> corrections = new HashMap<>();
+        shared.forEach((term, count) -> {
+            if (count < minShared || Math.abs(terms[term].length() - word.length()) > allowed) return;
+            int distance = editDistance(word, terms[term], allowed);
+            if (distance <= allowed) corrections.put(term, distance);
+        });
+        return corrections;
+    }
+
+    // Trigrams of a word padded with '$' at both ends, so starts and ends count too
+    private static Set<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Edit distance counting insertions, deletions, replacements and swaps of adjacent letters
+     * @return The distance, or limit + 1 as soon as it is known to exceed limit
+     */
+    static int editDistance(String a, String b, int limit) {
+        int[] before = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        int previousBest = 0;
+        for (int i = 1; i <= a.length(); i++) {
+            row[0] = i;
+            int best = row[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    row[j] = Math.min(row[j], before[j - 2] + 1);
+                }
+                best = Math.min(best, row[j]);
+            }
+            // A swap reaches back two rows, so both must be out of reach
+            if (best > limit && previousBest >= limit) return limit + 1;
+            previousBest = best;
+            int[] recycled = before;
+            before = previous;
+            previous = row;
+            row = recycled;
+        }
+        return Math.min(previous[b.length()], limit + 1);
+    }
+
+    /**
+     * Split text into lowercase words, dropping duplicates but keeping order
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return List.of();
+        LinkedHashSet<String> words = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return new ArrayList<>(words);
+    }
+
+    private static void addField(TreeMap<String, Map<Integer, Integer>> postings, int doc, String text, int weight) {
+        for (String word : tokenize(text)) {
+            // Docs are added in ascending order, so each posting list stays sorted
+            postings.computeIfAbsent(word, k -> new LinkedHashMap<>()).merge(doc, weight, Integer::sum);
+        }
+    }
+}
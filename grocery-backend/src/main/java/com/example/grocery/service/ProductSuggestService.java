@@ -0,0 +1,62 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * ProductSuggestService
+ * Typeahead suggestions for the catalog search box: products with a name word
+ * starting with the typed prefix, best sellers first. Answered from the catalog
+ * snapshot's per-category suggesters and in-memory sales counts only.
+ */
+@Service
+public class ProductSuggestService {
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ProductPopularity productPopularity;
+
+    private record Candidate(CatalogRow product, boolean nameStart, long unitsSold) {}
+
+    // Best first: most units sold, then names that start with the prefix, then shorter and alphabetical names
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingLong(Candidate::unitsSold).reversed()
+            .thenComparing(Candidate::nameStart, Comparator.reverseOrder())
+            .thenComparingInt((Candidate c) -> c.product().name().length())
+            .thenComparing(c -> c.product().name(), String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(c -> c.product().category())
+            .thenComparing(c -> c.product().id());
+
+    /**
+     * Top suggestions for a prefix
+     * @param prefix What the user has typed so far; case and punctuation are ignored
+     * @param limit Maximum number of suggestions
+     * @return Up to limit products, best first; empty for a blank prefix
+     */
+    public List<CatalogRow> suggest(String prefix, int limit) {
+        String normalized = PrefixSuggester.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) return List.of();
+
+        CatalogSnapshot snapshot = catalogService.snapshot();
+        // Keeps the best limit candidates; the head is the worst of them
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (CatalogCategory category : CatalogCategory.values()) {
+            snapshot.getSuggester(category).match(normalized).forEach((product, nameStart) -> {
+                best.add(new Candidate(product, nameStart, productPopularity.unitsSold(product)));
+                if (best.size() > limit) best.poll();
+            });
+        }
+
+        List<CatalogRow> suggestions = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            suggestions.add(best.poll().product());
+        }
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.grocery.service;
+
+import com.example.grocery.repo.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * StockService
+ * Reserves stock for orders with single-statement conditional decrements
+ * (UPDATE ... SET quantity = quantity - n WHERE id = ? AND quantity >= n)
+ * instead of read-modify-write, so two checkouts can never sell the same units.
+ */
+@Service
+public class StockService {
+
+    @Autowired
+    private BakeryRepository bakeryRepo;
+
+    @Autowired
+    private FruitsRepository fruitsRepo;
+
+    @Autowired
+    private DairyRepository dairyRepo;
+
+    @Autowired
+    private MeatRepository meatRepo;
+
+    @Autowired
+    private BeveragesRepository beveragesRepo;
+
+    @Autowired
+    private GrainsRepository grainsRepo;
+
+    @Autowired
+    private VegetablesRepository vegetablesRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    /**
+     * Units of one product to take out of stock
+     */
+    public record StockLine(CatalogCategory category, Long productId, int quantity) {}
+
+    /**
+     * Reserve stock for every line.
+     * Must run inside the caller's transaction: when lines come back short the caller
+     * rolls back, which also undoes the decrements that did succeed.
+     *
+     * Lines for the same product are merged, and rows are updated grouped by category
+     * and in id order, so concurrent orders lock rows in the same order and cannot deadlock.
+     *
+     * @param lines Products and quantities to reserve
+     * @return The merged lines that could not be reserved (not enough stock, unknown or inactive product);
+     *         empty when everything was reserved
+     * @throws IllegalArgumentException If a line's quantity is not positive; the conditional
+     *                                  decrement would otherwise add stock
+     */
+    public List<StockLine> reserve(List<StockLine> lines) {
+        Map<CatalogCategory, SortedMap<Long, Integer>> merged = new EnumMap<>(CatalogCategory.class);
+        for (StockLine line : lines) {
+            if (line.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product " + line.productId());
+            }
+            merged.computeIfAbsent(line.category(), k -> new TreeMap<>())
+                  .merge(line.productId(), line.quantity(), Integer::sum);
+        }
+
+        List<StockLine> shortfalls = new ArrayList<>();
+        for (Map.Entry<CatalogCategory, SortedMap<Long, Integer>> category : merged.entrySet()) {
+            for (Map.Entry<Long, Integer> product : category.getValue().entrySet()) {
+                int updated = reserveStock(category.getKey(), product.getKey(), product.getValue());
+                if (updated == 0) {
+                    shortfalls.add(new StockLine(category.getKey(), product.getKey(), product.getValue()));
+                }
+            }
+        }
+        return shortfalls;
+    }
+
+    private int reserveStock(CatalogCategory category, Long id, int quantity) {
+        switch (category) {
+            case BAKERY: return bakeryRepo.reserveStock(id, quantity);
+            case FRUITS: return fruitsRepo.reserveStock(id, quantity);
+            case DAIRY: return dairyRepo.reserveStock(id, quantity);
+            case MEAT: return meatRepo.reserveStock(id, quantity);
+            case BEVERAGES: return beveragesRepo.reserveStock(id, quantity);
+            case GRAINS: return grainsRepo.reserveStock(id, quantity);
+            case VEGETABLES: return vegetablesRepo.reserveStock(id, quantity);
+            case PRODUCTS: return productRepo.reserveStock(id, quantity);
+            default: throw new IllegalArgumentException("Unknown category: " + category);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.grocery.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * UnsupportedImageException
+ * Thrown when an uploaded image is not a PNG, JPEG, GIF or WebP image.
+ * Answered with 400 when a controller does not handle it itself.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedImageException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UnsupportedImageException(String message) {
+        super(message);
+    }
+}
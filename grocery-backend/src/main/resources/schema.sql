@@ -121,11 +121,17 @@ CREATE TABLE IF NOT EXISTS orders (
     payment_receipt VARCHAR(255),
     payment_status VARCHAR(50),
     created_at DATETIME(6),
+    INDEX idx_orders_status_payment_created (status, payment_method, created_at),
+    INDEX idx_orders_customer_created (customer_id, created_at, id),
     CONSTRAINT FK_orders_customer FOREIGN KEY (customer_id) REFERENCES users(id),
     CONSTRAINT FK_orders_delivery_employee FOREIGN KEY (delivery_employee_id) REFERENCES employees(id),
     CONSTRAINT FK_orders_payment_handler FOREIGN KEY (payment_handler_id) REFERENCES employees(id)
 );
 
+-- Orders from before created_at was recorded: give them the epoch so they sort last
+-- in the order history and keyset pages (created_at, id) include them
+UPDATE orders SET created_at = '1970-01-01 00:00:00' WHERE created_at IS NULL;
+
 -- Order items table for individual products in each order
 CREATE TABLE IF NOT EXISTS order_items (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -0,0 +1,98 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogListing;
+import com.example.grocery.dto.CatalogRow;
+import com.example.grocery.model.Bakery;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CatalogProjectionBenchmark
+ * Compares the old reflective createProductMap path (six getMethod/invoke calls and a
+ * HashMap per product) with CatalogProjection turning listing projections into rows.
+ * Not part of the test suite; run main() from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogProjectionBenchmark {
+
+    @Param({"100", "2000"})
+    private int products;
+
+    private List<Bakery> entities;
+    private List<CatalogListing> listings;
+
+    @Setup
+    public void setUp() {
+        entities = new ArrayList<>(products);
+        listings = new ArrayList<>(products);
+        for (int i = 1; i <= products; i++) {
+            Bakery bakery = new Bakery("Bread " + i, "Fresh bread number " + i, 100 + i, i % 50,
+                    "/api/images/bakery/" + i);
+            bakery.setId((long) i);
+            entities.add(bakery);
+            listings.add(new CatalogListing(bakery.getId(), bakery.getName(), bakery.getDescription(),
+                    bakery.getPrice(), bakery.getQuantity(), bakery.getImage(), true));
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> reflectiveMaps() {
+        List<Map<String, Object>> rows = new ArrayList<>(entities.size());
+        for (Bakery item : entities) {
+            rows.add(createProductMap(item, "Bakery", "🥖"));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public List<CatalogRow> projection() {
+        return CatalogProjection.toRows(CatalogCategory.BAKERY, listings);
+    }
+
+    // The former CategoryController.createProductMap, kept as the baseline
+    private static Map<String, Object> createProductMap(Object item, String category, String icon) {
+        Map<String, Object> map = new HashMap<>();
+        try {
+            Method getId = item.getClass().getMethod("getId");
+            Method getName = item.getClass().getMethod("getName");
+            Method getPrice = item.getClass().getMethod("getPrice");
+            Method getDescription = item.getClass().getMethod("getDescription");
+            Method getQuantity = item.getClass().getMethod("getQuantity");
+            Method getImage = item.getClass().getMethod("getImage");
+
+            map.put("id", getId.invoke(item));
+            map.put("name", getName.invoke(item));
+            map.put("price", getPrice.invoke(item));
+            map.put("description", getDescription.invoke(item));
+            map.put("quantity", getQuantity.invoke(item));
+            map.put("image", getImage.invoke(item));
+            map.put("category", category.toLowerCase());
+            map.put("categoryIcon", icon);
+        } catch (Exception e) {
+            map.put("item", item);
+            map.put("category", category.toLowerCase());
+            map.put("categoryIcon", icon);
+        }
+        return map;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogProjectionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogQueryServiceTest {
+
+    private CatalogQueryService catalogQueryService;
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        catalogQueryService = new CatalogQueryService();
+        ReflectionTestUtils.setField(catalogQueryService, "defaultPageSize", 2);
+        snapshot = new CatalogSnapshot(1, Map.of(
+                CatalogCategory.BAKERY, List.of(
+                        row(CatalogCategory.BAKERY, 1L, "Bagel", 300, 4),
+                        row(CatalogCategory.BAKERY, 2L, "Croissant", 50, 0),
+                        row(CatalogCategory.BAKERY, 3L, "Baguette", 120, 2)),
+                CatalogCategory.DAIRY, List.of(
+                        row(CatalogCategory.DAIRY, 1L, "Milk", 90, 10),
+                        row(CatalogCategory.DAIRY, 2L, "Butter", 600, 3))),
+                Map.of());
+    }
+
+    @Test
+    void pagesCoverEveryMatchOnceAndStopAtTheTotal() {
+        CatalogQueryService.Page first = list(Set.of(), false, null, 0, null);
+        CatalogQueryService.Page second = list(Set.of(), false, null, 1, null);
+        CatalogQueryService.Page last = list(Set.of(), false, null, 2, null);
+
+        assertEquals(5, first.total());
+        assertEquals(2, first.size());
+        assertEquals(List.of("Bagel", "Croissant"), names(first));
+        assertEquals(List.of("Baguette", "Milk"), names(second));
+        assertEquals(List.of("Butter"), names(last));
+        assertTrue(first.hasMore());
+        assertTrue(second.hasMore());
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    void pagePastTheEndIsEmpty() {
+        CatalogQueryService.Page page = list(Set.of(), false, null, 3, null);
+
+        assertEquals(5, page.total());
+        assertTrue(page.products().isEmpty());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void sortedPagesWalkThePermutation() {
+        assertEquals(List.of("Croissant", "Milk"), names(list(Set.of(), false, CatalogQueryService.Sort.PRICE, 0, null)));
+        assertEquals(List.of("Baguette", "Bagel"), names(list(Set.of(), false, CatalogQueryService.Sort.PRICE, 1, null)));
+        assertEquals(List.of("Butter"), names(list(Set.of(), false, CatalogQueryService.Sort.PRICE, 2, null)));
+    }
+
+    @Test
+    void filtersApplyBeforePaging() {
+        CatalogQueryService.Page page = list(Set.of(CatalogCategory.BAKERY), true, CatalogQueryService.Sort.NAME, 0, 10);
+
+        assertEquals(2, page.total());
+        assertEquals(List.of("Bagel", "Baguette"), names(page));
+        assertEquals(2, page.categoryCounts().get("bakery"));
+        assertEquals(2, page.categoryCounts().get("dairy"));
+        assertEquals(2, page.inStockCount());
+    }
+
+    @Test
+    void pageSizeIsCapped() {
+        assertEquals(100, list(Set.of(), false, null, 0, 500).size());
+        assertEquals(2, list(Set.of(), false, null, 0, 0).size());
+    }
+
+    @Test
+    void rejectsANegativePage() {
+        assertThrows(IllegalArgumentException.class, () -> list(Set.of(), false, null, -1, null));
+    }
+
+    @Test
+    void newestNeedsASingleCategory() {
+        assertThrows(IllegalArgumentException.class, () -> list(Set.of(), false, CatalogQueryService.Sort.NEWEST, 0, null));
+        assertEquals(List.of("Baguette", "Croissant"),
+                names(list(Set.of(CatalogCategory.BAKERY), false, CatalogQueryService.Sort.NEWEST, 0, null)));
+    }
+
+    private CatalogQueryService.Page list(Set<CatalogCategory> categories, boolean inStockOnly,
+                                          CatalogQueryService.Sort sort, int page, Integer size) {
+        return catalogQueryService.list(snapshot, new CatalogQueryService.Query(
+                categories, Set.of(), inStockOnly, null, sort, page, size));
+    }
+
+    private static CatalogRow row(CatalogCategory category, Long id, String name, double price, int quantity) {
+        return new CatalogRow(id, name, price, null, quantity, null, category.getKey(), category.getIcon());
+    }
+
+    private static List<String> names(CatalogQueryService.Page page) {
+        return page.products().stream().map(CatalogRow::name).toList();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.grocery.service;
+
+import com.example.grocery.model.Order;
+import com.example.grocery.repo.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderHistoryServiceTest {
+
+    private static final Long CUSTOMER = 1L;
+
+    @Mock
+    private OrderRepository orderRepo;
+
+    @InjectMocks
+    private OrderHistoryService orderHistoryService;
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(orderRepo.findHistory(eq(CUSTOMER), any())).thenReturn(List.of(
+                order(3L, Timestamp.valueOf("2024-05-01 10:00:00")),
+                order(2L, Timestamp.valueOf("2024-04-01 10:00:00"))));
+
+        OrderHistoryService.Page page = orderHistoryService.page(CUSTOMER, null, 2);
+
+        assertEquals(2, page.orders().size());
+        assertNull(page.nextCursor());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void cursorContinuesAfterTheLastOrderWithFullPrecision() {
+        Timestamp last = Timestamp.valueOf("2024-05-01 10:15:30.123456789");
+        assertContinuesAfter(last);
+    }
+
+    @Test
+    void cursorContinuesAfterAnOrderBeforeTheEpoch() {
+        // Negative millis: seconds must round down so the nanos add back up to the same instant
+        Timestamp last = Timestamp.valueOf("1969-12-31 23:59:59.5");
+        assertContinuesAfter(last);
+    }
+
+    @Test
+    void cursorAfterAnUndatedOrderContinuesWithUndatedOrders() {
+        when(orderRepo.findHistory(eq(CUSTOMER), any())).thenReturn(List.of(
+                order(9L, Timestamp.valueOf("2024-05-01 10:00:00")),
+                order(4L, null),
+                order(3L, null)));
+
+        OrderHistoryService.Page first = orderHistoryService.page(CUSTOMER, null, 2);
+        assertNotNull(first.nextCursor());
+
+        orderHistoryService.page(CUSTOMER, first.nextCursor(), 2);
+        verify(orderRepo).findUndatedHistoryAfter(eq(CUSTOMER), eq(4L), any());
+    }
+
+    @Test
+    void rejectsACursorItDidNotIssue() {
+        assertThrows(IllegalArgumentException.class, () -> orderHistoryService.page(CUSTOMER, "***", 2));
+        assertThrows(IllegalArgumentException.class, () -> orderHistoryService.page(CUSTOMER, "bm90LWEtY3Vyc29y", 2));
+    }
+
+    private void assertContinuesAfter(Timestamp last) {
+        when(orderRepo.findHistory(eq(CUSTOMER), any())).thenReturn(List.of(
+                order(9L, Timestamp.valueOf("2024-06-01 10:00:00")),
+                order(7L, last),
+                order(6L, last)));
+
+        OrderHistoryService.Page first = orderHistoryService.page(CUSTOMER, null, 2);
+        assertTrue(first.hasMore());
+
+        orderHistoryService.page(CUSTOMER, first.nextCursor(), 2);
+        verify(orderRepo).findHistoryAfter(eq(CUSTOMER), eq(last), eq(7L), any());
+    }
+
+    private static Order order(Long id, Date createdAt) {
+        Order order = new Order();
+        order.setId(id);
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+}
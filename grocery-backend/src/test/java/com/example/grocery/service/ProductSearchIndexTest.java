@@ -0,0 +1,64 @@
+package com.example.grocery.service;
+
+import com.example.grocery.dto.CatalogRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void editDistanceCountsEachKindOfEditOnce() {
+        assertEquals(0, ProductSearchIndex.editDistance("milk", "milk", 2));
+        assertEquals(1, ProductSearchIndex.editDistance("milk", "silk", 2));
+        assertEquals(1, ProductSearchIndex.editDistance("yogurt", "yoghurt", 2));
+        assertEquals(1, ProductSearchIndex.editDistance("broccoli", "brocoli", 2));
+        assertEquals(1, ProductSearchIndex.editDistance("mlik", "milk", 2));
+        assertEquals(2, ProductSearchIndex.editDistance("brocoli", "broccolli", 2));
+    }
+
+    @Test
+    void editDistanceStopsOneAboveTheLimit() {
+        assertEquals(3, ProductSearchIndex.editDistance("kitten", "sitting", 2));
+        assertEquals(3, ProductSearchIndex.editDistance("kitten", "sitting", 3));
+        assertEquals(2, ProductSearchIndex.editDistance("abcdef", "ghijkl", 1));
+        assertEquals(1, ProductSearchIndex.editDistance("milk", "silk", 0));
+    }
+
+    @Test
+    void editDistanceOfEmptyWords() {
+        assertEquals(0, ProductSearchIndex.editDistance("", "", 0));
+        assertEquals(3, ProductSearchIndex.editDistance("", "abc", 5));
+        assertEquals(3, ProductSearchIndex.editDistance("abc", "", 5));
+    }
+
+    @Test
+    void everyQueryWordMustMatch() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(
+                row(1L, "Whole Milk", "Fresh dairy milk"),
+                row(2L, "Almond Milk", "Plant based drink")));
+
+        assertEquals(List.of(1L), ids(index.search("whole milk", 2)));
+        assertEquals(List.of(), ids(index.search("whole almond", 2)));
+    }
+
+    @Test
+    void misspelledNameWordIsCorrectedEvenWhenItPrefixesADescriptionWord() {
+        ProductSearchIndex index = new ProductSearchIndex(List.of(
+                row(1L, "Broccoli", "Fresh greens"),
+                row(2L, "Salad", "With brocolini")));
+
+        assertEquals(List.of(1L, 2L), ids(index.search("brocoli", 2)).stream().sorted().toList());
+        assertEquals(List.of(2L), ids(index.search("brocoli", 0)));
+    }
+
+    private static CatalogRow row(Long id, String name, String description) {
+        return new CatalogRow(id, name, 100, description, 1, null, "products", "");
+    }
+
+    private static List<Long> ids(List<CatalogRow> rows) {
+        return rows.stream().map(CatalogRow::id).toList();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.grocery.service;
+
+import com.example.grocery.repo.BakeryRepository;
+import com.example.grocery.repo.DairyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock
+    private BakeryRepository bakeryRepo;
+
+    @Mock
+    private DairyRepository dairyRepo;
+
+    @InjectMocks
+    private StockService stockService;
+
+    @Test
+    void reserveMergesLinesForTheSameProduct() {
+        when(dairyRepo.reserveStock(5L, 7)).thenReturn(1);
+
+        List<StockService.StockLine> shortfalls = stockService.reserve(List.of(
+                new StockService.StockLine(CatalogCategory.DAIRY, 5L, 3),
+                new StockService.StockLine(CatalogCategory.DAIRY, 5L, 4)));
+
+        assertTrue(shortfalls.isEmpty());
+        verify(dairyRepo).reserveStock(5L, 7);
+        verifyNoMoreInteractions(dairyRepo);
+    }
+
+    @Test
+    void reserveReturnsTheLinesThatCouldNotBeReserved() {
+        when(bakeryRepo.reserveStock(1L, 2)).thenReturn(1);
+        when(bakeryRepo.reserveStock(2L, 9)).thenReturn(0);
+
+        List<StockService.StockLine> shortfalls = stockService.reserve(List.of(
+                new StockService.StockLine(CatalogCategory.BAKERY, 2L, 9),
+                new StockService.StockLine(CatalogCategory.BAKERY, 1L, 2)));
+
+        assertEquals(List.of(new StockService.StockLine(CatalogCategory.BAKERY, 2L, 9)), shortfalls);
+    }
+
+    @Test
+    void reserveRejectsANegativeQuantity() {
+        assertThrows(IllegalArgumentException.class, () -> stockService.reserve(List.of(
+                new StockService.StockLine(CatalogCategory.DAIRY, 5L, -100))));
+        verifyNoInteractions(dairyRepo);
+    }
+
+    @Test
+    void reserveRejectsAZeroQuantity() {
+        assertThrows(IllegalArgumentException.class, () -> stockService.reserve(List.of(
+                new StockService.StockLine(CatalogCategory.DAIRY, 5L, 0))));
+        verifyNoInteractions(dairyRepo);
+    }
+
+    @Test
+    void reserveRejectsANegativeLineThatWouldCancelAnotherOut() {
+        assertThrows(IllegalArgumentException.class, () -> stockService.reserve(List.of(
+                new StockService.StockLine(CatalogCategory.DAIRY, 5L, 10),
+                new StockService.StockLine(CatalogCategory.DAIRY, 5L, -10))));
+        verifyNoInteractions(dairyRepo);
+    }
+}
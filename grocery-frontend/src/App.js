@@ -1,6 +1,7 @@
 import React, {useState, useEffect} from 'react';
 import ProductCard from './ProductCard';
 import axios from 'axios';
+import { imageUrl } from './config/api';
 import HomePage from './HomePage';
 import DeliveryEmployeeDashboard from './components/DeliveryEmployeeDashboard';
 import WorkerDashboard from './WorkerDashboard';
@@ -61,6 +62,65 @@ const ROLE_CONFIG = {
   }
 };
 
+// Catalog kept in localStorage with its version, so returning visitors
+// only download the changes since (GET /categories/changes?since=)
+const CATALOG_CACHE_KEY = 'catalogCache';
+
+function readCatalogCache() {
+  try {
+    const cached = JSON.parse(localStorage.getItem(CATALOG_CACHE_KEY));
+    return cached && cached.version && Array.isArray(cached.products) ? cached : null;
+  } catch (e) {
+    return null;
+  }
+}
+
+function writeCatalogCache(version, products) {
+  try {
+    localStorage.setItem(CATALOG_CACHE_KEY, JSON.stringify({ version, products }));
+  } catch (e) {
+    // Storage full or unavailable: next visit downloads the whole catalog again
+    localStorage.removeItem(CATALOG_CACHE_KEY);
+  }
+}
+
+// Product ids are only unique within a category
+const catalogKey = (category, id) => `${category}:${id}`;
+
+function applyCatalogChanges(products, changes) {
+  const byKey = new Map(products.map(p => [catalogKey(p.category, p.id), p]));
+  changes.forEach(change => {
+    const key = catalogKey(change.category, change.id);
+    if (change.type === 'removed') {
+      byKey.delete(key);
+    } else {
+      byKey.set(key, change.product);
+    }
+  });
+  return Array.from(byKey.values());
+}
+
+// All active products: cached catalog plus deltas, or the full catalog when there is no
+// usable cache or the server asks for a resync. Returns null if the Category API fails.
+async function loadCatalog(bustCache) {
+  const timestamp = bustCache ? `&t=${Date.now()}` : '';
+  const cached = readCatalogCache();
+  if (cached) {
+    const { data } = await axios.get(`${API}/categories/changes?since=${cached.version}${timestamp}`);
+    if (data.success && !data.resync) {
+      const products = data.changes.length > 0 ? applyCatalogChanges(cached.products, data.changes) : cached.products;
+      if (data.version !== cached.version) writeCatalogCache(data.version, products);
+      console.log(`🔁 Catalog v${cached.version} → v${data.version}: ${data.changes.length} changes`);
+      return products;
+    }
+  }
+
+  const { data } = await axios.get(`${API}/categories/all-products${bustCache ? `?t=${Date.now()}` : ''}`);
+  if (!data.success || !data.products) return null;
+  if (data.version) writeCatalogCache(data.version, data.products);
+  return data.products;
+}
+
 function App(){
   const [search, setSearch] = useState("");
   function signOut() {
@@ -678,6 +738,29 @@ function App(){
   const [searchResults, setSearchResults] = useState([]);
   const [categoryStats, setCategoryStats] = useState(null);
   const [isSearching, setIsSearching] = useState(false);
+  const [suggestions, setSuggestions] = useState([]);
+  
+  // Typeahead: ask for suggestions once typing pauses; late answers for an older prefix are dropped
+  useEffect(() => {
+    const prefix = search.trim();
+    if (!prefix) {
+      setSuggestions([]);
+      return;
+    }
+    let stale = false;
+    const timer = setTimeout(async () => {
+      try {
+        const { data } = await axios.get(`${API}/categories/suggest?prefix=${encodeURIComponent(prefix)}&limit=8`);
+        if (!stale && data.success) setSuggestions(data.suggestions);
+      } catch (e) {
+        if (!stale) setSuggestions([]);
+      }
+    }, 150);
+    return () => {
+      stale = true;
+      clearTimeout(timer);
+    };
+  }, [search]);
   
   useEffect(()=>{ 
     // Load products for any user (logged in, guest, or employee)
@@ -735,14 +818,12 @@ function App(){
   
   async function fetchAllProducts(bustCache = false){
     try {
-      // Use new Category API - fetch all products in one call
+      // Use new Category API - cached catalog plus changes, or all products in one call
       // Add cache-busting parameter if needed
-      const timestamp = bustCache ? `?t=${Date.now()}` : '';
       console.log('🔄 Fetching all products using Category API...' + (bustCache ? ' (cache-busting)' : ''));
-      const response = await axios.get(`${API}/categories/all-products${timestamp}`);
+      const allProducts = await loadCatalog(bustCache);
       
-      if (response.data.success && response.data.products) {
-        const allProducts = response.data.products;
+      if (allProducts) {
         console.log(`✅ Loaded ${allProducts.length} products from Category API`);
         
         // Sort products into categories
@@ -832,7 +913,8 @@ function App(){
       const setters = [setProducts, setBakery, setFruits, setDairy, setMeat, setBeverages, setGrains, setVegetables];
       let hasData = false;
       
-      for (let i = 0; i < categories.length; i++) {
+      // Requested in parallel: each category is independent
+      await Promise.all(categories.map(async (_, i) => {
         try {
           // Try category API first
           let categoryResponse = await axios.get(`${API}/categories/${categories[i]}`);
@@ -860,7 +942,7 @@ function App(){
             setters[i]([]);
           }
         }
-      }
+      }));
       
       if (hasData) {
         console.log('✅ Successfully loaded products from category endpoints');
@@ -3494,6 +3576,7 @@ function App(){
                     <input
                       type="text"
                       placeholder="Search for more than 20,000 products"
+                      list="search-suggestions"
                       value={search}
                       onChange={e => setSearch(e.target.value)}
                       style={{
@@ -3504,6 +3587,11 @@ function App(){
                         outline:'none'
                       }}
                     />
+                    <datalist id="search-suggestions">
+                      {suggestions.map(s => (
+                        <option key={`${s.category}-${s.id}`} value={s.name}>{s.categoryIcon} {s.category}</option>
+                      ))}
+                    </datalist>
                     <button style={{
                       backgroundColor:'#ffa726',
                       border:'none',
@@ -3651,7 +3739,7 @@ function App(){
                           <img 
                             src={
                               product.image && product.image.trim() !== '' ? 
-                                product.image :
+                                imageUrl(product.image) :
                                 (product.name && product.name.toLowerCase().includes('tomato') ? 
                                   (product.name.toLowerCase().includes('ketchup') ? 
                                     '/FoodMart-1.0.0/images/thumb-tomatoketchup.png' : 
@@ -3941,7 +4029,7 @@ function App(){
                       }}>
                         {item.image ? (
                           <img 
-                            src={item.image} 
+                            src={imageUrl(item.image)} 
                             alt={item.name}
                             style={{
                               width: '100%',
@@ -4708,7 +4796,7 @@ function App(){
                     {(form.image || imagePreview) ? (
                       <div style={{position:'relative'}}>
                         <img 
-                          src={form.image || imagePreview} 
+                          src={imageUrl(form.image) || imagePreview} 
                           alt="Product preview" 
                           style={{
                             maxWidth: '100%',
@@ -5112,7 +5200,7 @@ function App(){
                                 onMouseLeave={(e) => e.currentTarget.style.background = 'rgba(40, 40, 40, 0.4)'}>
                               <td style={{padding:'10px 12px', border:'1px solid rgba(122, 183, 48, 0.15)'}}>
                                 {p.image ? (
-                                  <img src={p.image} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(122, 183, 48, 0.3)'}} 
+                                  <img src={imageUrl(p.image)} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(122, 183, 48, 0.3)'}} 
                                     onError={(e) => {e.target.style.display = 'none';}} />
                                 ) : (
                                   <div style={{width:'70px', height:'70px', background:'rgba(60, 60, 60, 0.6)', borderRadius:'8px', display:'flex', alignItems:'center', justifyContent:'center', fontSize:'11px', color:'rgba(255, 255, 255, 0.4)', border:'1px dashed rgba(122, 183, 48, 0.3)'}}>No Image</div>
@@ -5175,7 +5263,7 @@ function App(){
                                 onMouseLeave={(e) => e.currentTarget.style.background = 'rgba(40, 35, 30, 0.4)'}>
                               <td style={{padding:'10px 12px', border:'1px solid rgba(255, 193, 7, 0.2)'}}>
                                 {p.image ? (
-                                  <img src={p.image} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(255, 193, 7, 0.4)'}} 
+                                  <img src={imageUrl(p.image)} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(255, 193, 7, 0.4)'}} 
                                     onError={(e) => {e.target.style.display = 'none';}} />
                                 ) : (
                                   <div style={{width:'70px', height:'70px', background:'rgba(60, 55, 50, 0.6)', borderRadius:'8px', display:'flex', alignItems:'center', justifyContent:'center', fontSize:'11px', color:'rgba(255, 255, 255, 0.4)', border:'1px dashed rgba(255, 193, 7, 0.4)'}}>No Image</div>
@@ -5238,7 +5326,7 @@ function App(){
                                 onMouseLeave={(e) => e.currentTarget.style.background = 'rgba(35, 45, 35, 0.4)'}>
                               <td style={{padding:'10px 12px', border:'1px solid rgba(76, 175, 80, 0.2)'}}>
                                 {p.image ? (
-                                  <img src={p.image} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(76, 175, 80, 0.4)'}} 
+                                  <img src={imageUrl(p.image)} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(76, 175, 80, 0.4)'}} 
                                     onError={(e) => {e.target.style.display = 'none';}} />
                                 ) : (
                                   <div style={{width:'70px', height:'70px', background:'rgba(55, 65, 55, 0.6)', borderRadius:'8px', display:'flex', alignItems:'center', justifyContent:'center', fontSize:'11px', color:'rgba(255, 255, 255, 0.4)', border:'1px dashed rgba(76, 175, 80, 0.4)'}}>No Image</div>
@@ -5301,7 +5389,7 @@ function App(){
                                 onMouseLeave={(e) => e.currentTarget.style.background = 'rgba(30, 40, 50, 0.4)'}>
                               <td style={{padding:'10px 12px', border:'1px solid rgba(33, 150, 243, 0.2)'}}>
                                 {p.image ? (
-                                  <img src={p.image} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(33, 150, 243, 0.4)'}} 
+                                  <img src={imageUrl(p.image)} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(33, 150, 243, 0.4)'}} 
                                     onError={(e) => {e.target.style.display = 'none';}} />
                                 ) : (
                                   <div style={{width:'70px', height:'70px', background:'rgba(50, 60, 70, 0.6)', borderRadius:'8px', display:'flex', alignItems:'center', justifyContent:'center', fontSize:'11px', color:'rgba(255, 255, 255, 0.4)', border:'1px dashed rgba(33, 150, 243, 0.4)'}}>No Image</div>
@@ -5364,7 +5452,7 @@ function App(){
                                 onMouseLeave={(e) => e.currentTarget.style.background = 'rgba(45, 30, 30, 0.4)'}>
                               <td style={{padding:'10px 12px', border:'1px solid rgba(244, 67, 54, 0.2)'}}>
                                 {p.image ? (
-                                  <img src={p.image} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(244, 67, 54, 0.4)'}} 
+                                  <img src={imageUrl(p.image)} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(244, 67, 54, 0.4)'}} 
                                     onError={(e) => {e.target.style.display = 'none';}} />
                                 ) : (
                                   <div style={{width:'70px', height:'70px', background:'rgba(65, 50, 50, 0.6)', borderRadius:'8px', display:'flex', alignItems:'center', justifyContent:'center', fontSize:'11px', color:'rgba(255, 255, 255, 0.4)', border:'1px dashed rgba(244, 67, 54, 0.4)'}}>No Image</div>
@@ -5427,7 +5515,7 @@ function App(){
                                 onMouseLeave={(e) => e.currentTarget.style.background = 'rgba(40, 30, 45, 0.4)'}>
                               <td style={{padding:'10px 12px', border:'1px solid rgba(156, 39, 176, 0.2)'}}>
                                 {p.image ? (
-                                  <img src={p.image} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(156, 39, 176, 0.4)'}} 
+                                  <img src={imageUrl(p.image)} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(156, 39, 176, 0.4)'}} 
                                     onError={(e) => {e.target.style.display = 'none';}} />
                                 ) : (
                                   <div style={{width:'70px', height:'70px', background:'rgba(60, 50, 65, 0.6)', borderRadius:'8px', display:'flex', alignItems:'center', justifyContent:'center', fontSize:'11px', color:'rgba(255, 255, 255, 0.4)', border:'1px dashed rgba(156, 39, 176, 0.4)'}}>No Image</div>
@@ -5490,7 +5578,7 @@ function App(){
                                 onMouseLeave={(e) => e.currentTarget.style.background = 'rgba(45, 40, 30, 0.4)'}>
                               <td style={{padding:'10px 12px', border:'1px solid rgba(255, 152, 0, 0.2)'}}>
                                 {p.image ? (
-                                  <img src={p.image} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(255, 152, 0, 0.4)'}} 
+                                  <img src={imageUrl(p.image)} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(255, 152, 0, 0.4)'}} 
                                     onError={(e) => {e.target.style.display = 'none';}} />
                                 ) : (
                                   <div style={{width:'70px', height:'70px', background:'rgba(65, 60, 50, 0.6)', borderRadius:'8px', display:'flex', alignItems:'center', justifyContent:'center', fontSize:'11px', color:'rgba(255, 255, 255, 0.4)', border:'1px dashed rgba(255, 152, 0, 0.4)'}}>No Image</div>
@@ -5553,7 +5641,7 @@ function App(){
                                 onMouseLeave={(e) => e.currentTarget.style.background = 'rgba(40, 50, 35, 0.4)'}>
                               <td style={{padding:'10px 12px', border:'1px solid rgba(139, 195, 74, 0.2)'}}>
                                 {p.image ? (
-                                  <img src={p.image} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(139, 195, 74, 0.4)'}} 
+                                  <img src={imageUrl(p.image)} alt={p.name} style={{width:'70px', height:'70px', objectFit:'cover', borderRadius:'8px', border:'2px solid rgba(139, 195, 74, 0.4)'}} 
                                     onError={(e) => {e.target.style.display = 'none';}} />
                                 ) : (
                                   <div style={{width:'70px', height:'70px', background:'rgba(60, 70, 55, 0.6)', borderRadius:'8px', display:'flex', alignItems:'center', justifyContent:'center', fontSize:'11px', color:'rgba(255, 255, 255, 0.4)', border:'1px dashed rgba(139, 195, 74, 0.4)'}}>No Image</div>
@@ -2,6 +2,8 @@ import React, { useState, useEffect } from 'react';
 import API_BASE_URL from './config/api';
 import './CustomerOrderHistory.css';
 
+const ORDERS_PAGE_SIZE = 20;
+
 /**
  * Customer Order History Component
  * Shows all customer orders with payment status
@@ -10,28 +12,43 @@ const CustomerOrderHistory = ({ customerId }) => {
   const [orders, setOrders] = useState([]);
   const [loading, setLoading] = useState(true);
   const [filter, setFilter] = useState('all'); // all, pending, placed, cancelled
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   useEffect(() => {
+    setOrders([]);
+    setNextCursor(null);
     fetchOrders();
   }, [customerId]);
 
-  const fetchOrders = async () => {
+  // Orders are paged newest first; nextCursor continues after the last loaded order
+  const fetchOrders = async (cursor = null) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/api/users/${customerId}/orders`);
+      const params = new URLSearchParams({ limit: ORDERS_PAGE_SIZE });
+      if (cursor) params.set('cursor', cursor);
+      const response = await fetch(`${API_BASE_URL}/api/orders/users/${customerId}/orders?${params}`);
       const data = await response.json();
 
       if (data.error) {
         throw new Error(data.error);
       }
 
-      setOrders(Array.isArray(data) ? data : []);
+      const page = Array.isArray(data.orders) ? data.orders : [];
+      setOrders(prev => (cursor ? [...prev, ...page] : page));
+      setNextCursor(data.nextCursor || null);
     } catch (error) {
       console.error('Failed to fetch orders:', error);
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
+  const loadMore = () => {
+    setLoadingMore(true);
+    fetchOrders(nextCursor);
+  };
+
   const getStatusBadge = (status) => {
     const statusConfig = {
       'PLACED': { class: 'badge-success', text: 'Placed' },
@@ -210,6 +227,14 @@ const CustomerOrderHistory = ({ customerId }) => {
           ))}
         </div>
       )}
+
+      {nextCursor && (
+        <div className="load-more">
+          <button className="tab" onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load more orders'}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
@@ -18,9 +18,11 @@ const PaymentHandlerDashboard = ({ employee, onSignOut }) => {
 
   useEffect(() => {
     fetchPendingPayments();
-    // Refresh every 30 seconds
-    const interval = setInterval(fetchPendingPayments, 30000);
-    return () => clearInterval(interval);
+    // Refresh when the server pushes a payment event; EventSource reconnects
+    // by itself and the server replays anything missed (Last-Event-ID)
+    const events = new EventSource(`${API_BASE_URL}/api/events/employees/${employeeId}`);
+    events.onmessage = () => fetchPendingPayments();
+    return () => events.close();
   }, []);
 
   const fetchPendingPayments = async () => {
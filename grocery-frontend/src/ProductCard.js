@@ -1,4 +1,5 @@
 import React, { useState } from 'react';
+import { imageUrl } from './config/api';
 
 function ProductCard({product, addToCart}){
   const [qty, setQty] = useState(1);
@@ -79,7 +80,7 @@ function ProductCard({product, addToCart}){
         position: 'relative'
       }}>
         <img 
-          src={product.image || '/FoodMart-1.0.0/images/thumb-bananas.png'} 
+          src={imageUrl(product.image) || '/FoodMart-1.0.0/images/thumb-bananas.png'} 
           alt={product.name}
           style={{
             width: '100%',
@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import axios from 'axios';
-import API_BASE_URL from './config/api';
+import API_BASE_URL, { imageUrl } from './config/api';
 import './WorkerDashboard.css';
 
 const WorkerDashboard = ({ employee, onSignOut }) => {
@@ -219,7 +219,7 @@ const WorkerDashboard = ({ employee, onSignOut }) => {
       quantity: product.quantity,
       image: product.image || ''
     });
-    setImagePreview(product.image || null);
+    setImagePreview(imageUrl(product.image) || null);
     setShowEditModal(true);
   };
 
@@ -273,7 +273,7 @@ const WorkerDashboard = ({ employee, onSignOut }) => {
               <div key={`${activeTab}-${product.id}`} className="product-card">
                 {product.image && (
                   <div className="product-image-display">
-                    <img src={product.image} alt={product.name} />
+                    <img src={imageUrl(product.image)} alt={product.name} />
                   </div>
                 )}
                 <div className="product-header">
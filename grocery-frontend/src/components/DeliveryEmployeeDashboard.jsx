@@ -16,9 +16,11 @@ const DeliveryEmployeeDashboard = ({ employee, onSignOut }) => {
   useEffect(() => {
     if (employeeId) {
       fetchMyOrders();
-      // Auto-refresh every 30 seconds
-      const interval = setInterval(fetchMyOrders, 30000);
-      return () => clearInterval(interval);
+      // Refresh when the server pushes an order event; EventSource reconnects
+      // by itself and the server replays anything missed (Last-Event-ID)
+      const events = new EventSource(`${API_BASE_URL}/api/events/employees/${employeeId}`);
+      events.onmessage = () => fetchMyOrders();
+      return () => events.close();
     } else {
       setError('Employee ID not found. Please log in again.');
       setLoading(false);
@@ -3,4 +3,7 @@
 
 const API_BASE_URL = process.env.REACT_APP_API_URL || (process.env.NODE_ENV === 'production' ? '' : 'http://localhost:8081');
 
+// Product images served by the backend come back as /api/images/... paths; point them at the API origin
+export const imageUrl = (src) => (src && src.startsWith('/api/') ? API_BASE_URL + src : src);
+
 export default API_BASE_URL;